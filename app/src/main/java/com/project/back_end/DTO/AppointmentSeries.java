@@ -0,0 +1,50 @@
+package com.project.back_end.DTO;
+
+import java.time.LocalDateTime;
+
+public class AppointmentSeries {
+
+    private Long doctorId;
+
+    // Start of the first appointment; the others follow every intervalDays days at the same time
+    private LocalDateTime firstAppointmentTime;
+
+    private int occurrences;
+
+    private int intervalDays = 7;
+
+    public AppointmentSeries() {
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public LocalDateTime getFirstAppointmentTime() {
+        return firstAppointmentTime;
+    }
+
+    public void setFirstAppointmentTime(LocalDateTime firstAppointmentTime) {
+        this.firstAppointmentTime = firstAppointmentTime;
+    }
+
+    public int getOccurrences() {
+        return occurrences;
+    }
+
+    public void setOccurrences(int occurrences) {
+        this.occurrences = occurrences;
+    }
+
+    public int getIntervalDays() {
+        return intervalDays;
+    }
+
+    public void setIntervalDays(int intervalDays) {
+        this.intervalDays = intervalDays;
+    }
+}
@@ -0,0 +1,50 @@
+package com.project.back_end.DTO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class AvailableSlotDTO {
+
+    private Long doctorId;
+    private String doctorName;
+    private String specialty;
+    private LocalDate date;
+    private String slot;
+    private LocalDateTime startTime;
+
+    public AvailableSlotDTO() {
+    }
+
+    public AvailableSlotDTO(Long doctorId, String doctorName, String specialty, String slot, LocalDateTime startTime) {
+        this.doctorId = doctorId;
+        this.doctorName = doctorName;
+        this.specialty = specialty;
+        this.slot = slot;
+        this.startTime = startTime;
+        this.date = startTime.toLocalDate();
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public String getDoctorName() {
+        return doctorName;
+    }
+
+    public String getSpecialty() {
+        return specialty;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public String getSlot() {
+        return slot;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+}
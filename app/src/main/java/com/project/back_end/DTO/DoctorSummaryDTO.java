@@ -0,0 +1,50 @@
+package com.project.back_end.DTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DoctorSummaryDTO {
+
+    private Long id;
+    private String name;
+    private String specialty;
+    private String email;
+    private String phone;
+    private List<String> availableTimes = new ArrayList<>();
+
+    public DoctorSummaryDTO() {
+    }
+
+    // Used by the JPQL constructor expression; available times are attached afterwards in one batched query
+    public DoctorSummaryDTO(Long id, String name, String specialty, String email, String phone) {
+        this.id = id;
+        this.name = name;
+        this.specialty = specialty;
+        this.email = email;
+        this.phone = phone;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSpecialty() {
+        return specialty;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public List<String> getAvailableTimes() {
+        return availableTimes;
+    }
+}
@@ -0,0 +1,23 @@
+package com.project.back_end.auth;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a controller parameter that receives the caller resolved from the
+ * {token} path variable. The token is verified once per request by
+ * {@link AuthenticationInterceptor}; requests with an invalid token never
+ * reach the controller.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Authenticated {
+
+    /**
+     * Required user type (admin, doctor or patient). When empty, the type is
+     * taken from the {user} path variable.
+     */
+    String value() default "";
+}
@@ -0,0 +1,73 @@
+package com.project.back_end.auth;
+
+import com.project.back_end.models.Admin;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+
+import java.util.function.Supplier;
+
+/**
+ * The caller of the current request. Role, identifier and id come from the
+ * verified token; the full entity is only loaded if a handler asks for it,
+ * and then at most once per request.
+ */
+public class AuthenticatedUser {
+
+    private final String role;
+    private final String identifier;
+    private final Long id;
+    private final Supplier<Object> loader;
+    private Object entity;
+    private boolean loaded;
+
+    public AuthenticatedUser(String role, String identifier, Long id, Supplier<Object> loader) {
+        this.role = role;
+        this.identifier = identifier;
+        this.id = id;
+        this.loader = loader;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public boolean isAdmin() {
+        return "admin".equals(role);
+    }
+
+    public boolean isDoctor() {
+        return "doctor".equals(role);
+    }
+
+    public boolean isPatient() {
+        return "patient".equals(role);
+    }
+
+    public Admin getAdmin() {
+        return isAdmin() ? (Admin) getEntity() : null;
+    }
+
+    public Doctor getDoctor() {
+        return isDoctor() ? (Doctor) getEntity() : null;
+    }
+
+    public Patient getPatient() {
+        return isPatient() ? (Patient) getEntity() : null;
+    }
+
+    private Object getEntity() {
+        if (!loaded) {
+            entity = loader.get();
+            loaded = true;
+        }
+        return entity;
+    }
+}
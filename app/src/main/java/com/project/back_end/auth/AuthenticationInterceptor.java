@@ -0,0 +1,77 @@
+package com.project.back_end.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.services.TokenService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Verifies the {token} path variable once per request for handlers that take an
+ * {@link Authenticated} parameter, and stores the resolved caller as a request
+ * attribute for {@link AuthenticatedUserArgumentResolver}.
+ */
+@Component
+public class AuthenticationInterceptor implements HandlerInterceptor {
+
+    public static final String PRINCIPAL_ATTRIBUTE = AuthenticationInterceptor.class.getName() + ".principal";
+
+    private final TokenService tokenService;
+    private final ObjectMapper objectMapper;
+
+    public AuthenticationInterceptor(TokenService tokenService, ObjectMapper objectMapper) {
+        this.tokenService = tokenService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) throws IOException {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        Authenticated authenticated = findAnnotation(handlerMethod);
+        if (authenticated == null) {
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> pathVariables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String token = pathVariables != null ? pathVariables.get("token") : null;
+        String userType = authenticated.value().isEmpty()
+                ? (pathVariables != null ? pathVariables.get("user") : null)
+                : authenticated.value();
+
+        AuthenticatedUser user = token != null && userType != null ? tokenService.authenticate(token, userType) : null;
+        if (user == null) {
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getWriter(), Map.of("message", "Invalid or expired token"));
+            return false;
+        }
+
+        request.setAttribute(PRINCIPAL_ATTRIBUTE, user);
+        return true;
+    }
+
+    private static Authenticated findAnnotation(HandlerMethod handlerMethod) {
+        for (MethodParameter parameter : handlerMethod.getMethodParameters()) {
+            Authenticated authenticated = parameter.getParameterAnnotation(Authenticated.class);
+            if (authenticated != null) {
+                return authenticated;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,42 @@
+package com.project.back_end.config;
+
+import com.project.back_end.models.Prescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+/**
+ * Creates the prescription collection's indexes at startup. ensureIndex is a no-op for an
+ * index that already exists with the same definition, so this is safe on every boot.
+ */
+@Configuration
+public class MongoIndexConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexConfig.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoIndexConfig(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensurePrescriptionIndexes() {
+        try {
+            IndexOperations indexes = mongoTemplate.indexOps(Prescription.class);
+            // Lookups by appointment, single and batched ($in)
+            indexes.ensureIndex(new Index().on("appointmentId", Sort.Direction.ASC).named("idx_prescription_appointment"));
+            // Lookups of a patient's prescriptions by name
+            indexes.ensureIndex(new Index().on("patientName", Sort.Direction.ASC).named("idx_prescription_patient_name"));
+        } catch (RuntimeException e) {
+            // Queries still work without the indexes, only slower; retried on the next start
+            logger.warn("Prescription indexes could not be created", e);
+        }
+    }
+}
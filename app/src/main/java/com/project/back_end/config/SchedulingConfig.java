@@ -0,0 +1,10 @@
+package com.project.back_end.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Runs the @Scheduled background jobs, such as AppointmentStatusJob
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,28 +1,96 @@
 
 package com.project.back_end.controllers;
 
+import com.project.back_end.auth.Authenticated;
+import com.project.back_end.auth.AuthenticatedUser;
 import com.project.back_end.models.Admin;
+import com.project.back_end.services.AppointmentExportService;
 import com.project.back_end.services.Service;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("${api.path}" + "admin")
 public class AdminController {
     private final Service service;
+    private final AppointmentExportService exportService;
 
-    public AdminController(Service service) {
+    // Async timeout of the export only; other async requests keep the container default
+    @Value("${appointment.export.timeout-ms:600000}")
+    private long exportTimeoutMillis;
+
+    public AdminController(Service service, AppointmentExportService exportService) {
         this.service = service;
+        this.exportService = exportService;
     }
 
     @PostMapping
     public ResponseEntity<Map<String, String>> adminLogin(@RequestBody Admin admin) {
         return service.validateAdmin(admin);
     }
+
+    // Streams appointments from "from" to "to" (inclusive dates) as ?format=csv|ndjson, optionally gzipped
+    @GetMapping("/appointments/export/{from}/{to}/{token}")
+    public ResponseEntity<StreamingResponseBody> exportAppointments(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @Authenticated("admin") AuthenticatedUser admin,
+            HttpServletRequest request) {
+
+        AppointmentExportService.Format exportFormat;
+        try {
+            exportFormat = AppointmentExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // The body is written on an async thread once this method returns, under this request's async timeout
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(exportTimeoutMillis);
+
+        String filename = "appointments-" + from + "-" + to + "." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192);
+                exportService.export(from, to, exportFormat, gzipOut);
+                gzipOut.finish(); // Writes the trailer; the container owns and closes the response stream
+            } else {
+                exportService.export(from, to, exportFormat, out);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    @GetMapping("/stats/{token}")
+    public ResponseEntity<Map<String, Object>> getStats(@Authenticated("admin") AuthenticatedUser admin) {
+        return new ResponseEntity<>(service.getStats(), HttpStatus.OK);
+    }
 }
 
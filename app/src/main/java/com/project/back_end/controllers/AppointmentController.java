@@ -1,14 +1,18 @@
 package com.project.back_end.controllers;
 
+import com.project.back_end.DTO.AppointmentSeries;
+import com.project.back_end.auth.Authenticated;
+import com.project.back_end.auth.AuthenticatedUser;
 import com.project.back_end.models.Appointment;
 import com.project.back_end.services.AppointmentService;
-import com.project.back_end.services.Service;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @RestController
@@ -16,11 +20,12 @@ import java.util.Map;
 public class AppointmentController {
 
     private final AppointmentService appointmentService;
-    private final Service service;
 
-    public AppointmentController(AppointmentService appointmentService, Service service) {
+    @Value("${booking.hold.ttl-seconds:120}")
+    private long defaultHoldSeconds;
+
+    public AppointmentController(AppointmentService appointmentService) {
         this.appointmentService = appointmentService;
-        this.service = service;
     }
 
     // 1. getAppointments: Retrieves appointments for a specific doctor on a specific date
@@ -28,54 +33,65 @@ public class AppointmentController {
     public ResponseEntity<Map<String, Object>> getAppointments(
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @PathVariable String patientName,
-            @PathVariable String token) {
-
-        // Validate token for doctor role
-        ResponseEntity<Map<String, String>> tokenValidation = service.validateToken(token, "doctor");
-        if (tokenValidation != null) {
-            return new ResponseEntity<>(null, tokenValidation.getStatusCode());
-        }
+            @Authenticated("doctor") AuthenticatedUser doctor) {
 
-        Map<String, Object> appointments = appointmentService.getAppointment(patientName, date, token);
+        Map<String, Object> appointments = appointmentService.getAppointment(patientName, date, doctor.getId());
         return new ResponseEntity<>(appointments, HttpStatus.OK);
     }
 
     // 2. bookAppointment: Books a new appointment for a patient
     @PostMapping("/{token}")
     public ResponseEntity<Map<String, String>> bookAppointment(
-            @PathVariable String token,
+            @Authenticated("patient") AuthenticatedUser patient,
             @RequestBody Appointment appointment) {
 
-        // Validate token for patient role
-        ResponseEntity<Map<String, String>> tokenValidation = service.validateToken(token, "patient");
-        if (tokenValidation != null) {
-            return tokenValidation;
-        }
-
-        // Validate appointment availability via the general Service class
-        int validationStatus = service.validateAppointment(appointment);
-        if (validationStatus == 1) {
-            int result = appointmentService.bookAppointment(appointment);
-            if (result == 1) {
-                return new ResponseEntity<>(Map.of("message", "Appointment booked successfully"), HttpStatus.CREATED);
-            }
+        // A single insert; the (doctor, time) unique constraint settles concurrent bookings
+        int result = appointmentService.bookAppointment(appointment, patient.getId());
+        if (result == 1) {
+            return new ResponseEntity<>(Map.of("message", "Appointment booked successfully"), HttpStatus.CREATED);
+        } else if (result == -1) {
+            return new ResponseEntity<>(Map.of("message", "Time slot is held or was just booked by someone else"), HttpStatus.CONFLICT);
         }
 
         return new ResponseEntity<>(Map.of("message", "Failed to book appointment: Time slot unavailable or invalid doctor"), HttpStatus.BAD_REQUEST);
     }
 
+    // 2a. bookSeries: Books a recurring series of appointments for the patient in one request
+    @PostMapping("/series/{token}")
+    public ResponseEntity<Map<String, Object>> bookSeries(
+            @Authenticated("patient") AuthenticatedUser patient,
+            @RequestBody AppointmentSeries series) {
+
+        return appointmentService.bookSeries(series, patient.getId());
+    }
+
+    // 2b. holdSlot: Reserves a slot for a few seconds while the patient confirms
+    @PostMapping("/hold/{token}")
+    public ResponseEntity<Map<String, Object>> holdSlot(
+            @Authenticated("patient") AuthenticatedUser patient,
+            @RequestParam(required = false) Long seconds,
+            @RequestBody Appointment appointment) {
+
+        return appointmentService.holdSlot(appointment, patient.getId(), seconds != null ? seconds : defaultHoldSeconds);
+    }
+
+    // 2c. releaseSlot: Releases the patient's hold on a slot
+    @DeleteMapping("/hold/{doctorId}/{appointmentTime}/{token}")
+    public ResponseEntity<Map<String, String>> releaseSlot(
+            @PathVariable Long doctorId,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime appointmentTime,
+            @Authenticated("patient") AuthenticatedUser patient) {
+
+        appointmentService.releaseSlot(doctorId, appointmentTime, patient.getId());
+        return new ResponseEntity<>(Map.of("message", "Hold released"), HttpStatus.OK);
+    }
+
     // 3. updateAppointment: Updates an existing appointment
     @PutMapping("/{token}")
     public ResponseEntity<Map<String, String>> updateAppointment(
-            @PathVariable String token,
+            @Authenticated("patient") AuthenticatedUser patient,
             @RequestBody Appointment appointment) {
 
-        // Validate token for patient role
-        ResponseEntity<Map<String, String>> tokenValidation = service.validateToken(token, "patient");
-        if (tokenValidation != null) {
-            return tokenValidation;
-        }
-
         return appointmentService.updateAppointment(appointment);
     }
 
@@ -83,14 +99,8 @@ public class AppointmentController {
     @DeleteMapping("/{id}/{token}")
     public ResponseEntity<Map<String, String>> cancelAppointment(
             @PathVariable long id,
-            @PathVariable String token) {
-
-        // Validate token for patient role
-        ResponseEntity<Map<String, String>> tokenValidation = service.validateToken(token, "patient");
-        if (tokenValidation != null) {
-            return tokenValidation;
-        }
+            @Authenticated("patient") AuthenticatedUser patient) {
 
-        return appointmentService.cancelAppointment(id, token);
+        return appointmentService.cancelAppointment(id, patient);
     }
 }
\ No newline at end of file
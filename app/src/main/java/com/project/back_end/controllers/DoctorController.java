@@ -1,15 +1,22 @@
 package com.project.back_end.controllers;
 
+import com.project.back_end.auth.Authenticated;
+import com.project.back_end.auth.AuthenticatedUser;
+import com.project.back_end.DTO.AvailableSlotDTO;
 import com.project.back_end.models.Doctor;
 import com.project.back_end.DTO.Login;
 import com.project.back_end.services.DoctorService;
 import com.project.back_end.services.Service;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,9 +24,16 @@ import java.util.Map;
 @RestController
 @RequestMapping("${api.path}/doctor")
 public class DoctorController {
+    private static final int MAX_EARLIEST_SLOTS = 50;
+    private static final int MAX_SEARCH_RESULTS = 50;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final DoctorService doctorService;
     private final Service service;
 
+    @Value("${availability.range.max-days:31}")
+    private int maxAvailabilityRangeDays;
+
     public DoctorController(DoctorService doctorService, Service service) {
         this.doctorService = doctorService;
         this.service = service;
@@ -31,27 +45,102 @@ public class DoctorController {
      */
     @GetMapping("/availability/{user}/{doctorId}/{date}/{token}")
     public ResponseEntity<Map<String, Object>> getDoctorAvailability(
-            @PathVariable String user,
             @PathVariable Long doctorId,
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
-            @PathVariable String token) {
+            @Authenticated AuthenticatedUser caller) {
+
+        List<String> availability = doctorService.getDoctorAvailability(doctorId, date);
+        return new ResponseEntity<>(Map.of("availability", availability), HttpStatus.OK);
+    }
+
+    /**
+     * 1b. Get Doctor Availability for a Date Range
+     * Fetches available slots for every day from 'from' to 'to' (inclusive) in one call, keyed by date.
+     */
+    @GetMapping("/availability/{user}/{doctorId}/{from}/{to}/{token}")
+    public ResponseEntity<Map<String, Object>> getDoctorAvailabilityRange(
+            @PathVariable Long doctorId,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Authenticated AuthenticatedUser caller) {
 
-        ResponseEntity<Map<String, String>> tokenValidation = service.validateToken(token, user);
-        if (tokenValidation != null) {
-            return new ResponseEntity<>(null, tokenValidation.getStatusCode());
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= maxAvailabilityRangeDays) {
+            return new ResponseEntity<>(Map.of("message", "Date range must be between 1 and " + maxAvailabilityRangeDays + " days"), HttpStatus.BAD_REQUEST);
         }
 
-        List<String> availability = doctorService.getDoctorAvailability(doctorId, date);
+        Map<LocalDate, List<String>> availability = doctorService.getDoctorAvailability(doctorId, from, to);
         return new ResponseEntity<>(Map.of("availability", availability), HttpStatus.OK);
     }
 
+    /**
+     * 1c. Find Earliest Available Slots
+     * Returns the earliest free slots across all doctors of a specialty between 'from' and 'to'.
+     */
+    @GetMapping("/earliest/{user}/{specialty}/{from}/{to}/{token}")
+    public ResponseEntity<Map<String, Object>> findEarliestSlots(
+            @PathVariable String specialty,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "5") int limit,
+            @Authenticated AuthenticatedUser caller) {
+
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= maxAvailabilityRangeDays) {
+            return new ResponseEntity<>(Map.of("message", "Date range must be between 1 and " + maxAvailabilityRangeDays + " days"), HttpStatus.BAD_REQUEST);
+        }
+        if (limit < 1 || limit > MAX_EARLIEST_SLOTS) {
+            return new ResponseEntity<>(Map.of("message", "Limit must be between 1 and " + MAX_EARLIEST_SLOTS), HttpStatus.BAD_REQUEST);
+        }
+
+        List<AvailableSlotDTO> slots = doctorService.findEarliestSlots(specialty, from, to, limit);
+        return new ResponseEntity<>(Map.of("slots", slots), HttpStatus.OK);
+    }
+
     /**
      * 2. Get All Doctors
      * Returns a full list of doctors registered in the system.
      */
     @GetMapping
-    public List<Doctor> getDoctors() {
-        return doctorService.getDoctors();
+    public ResponseEntity<List<Doctor>> getDoctors(WebRequest webRequest) {
+        String etag = doctorService.getDirectoryETag();
+        if (webRequest.checkNotModified(etag)) {
+            return null; // 304 already written, no query or serialization needed
+        }
+        return directoryResponse(etag).body(doctorService.getDoctors());
+    }
+
+    /**
+     * 2a. Get Doctor Page
+     * Keyset-paged doctor listing; pass the returned nextCursor as "after" to fetch the following page.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<Map<String, Object>> getDoctorPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest webRequest) {
+
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return new ResponseEntity<>(Map.of("message", "Page size must be between 1 and " + MAX_PAGE_SIZE), HttpStatus.BAD_REQUEST);
+        }
+        String etag = doctorService.getDirectoryETag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return directoryResponse(etag).body(doctorService.getDoctorPage(after, size));
+    }
+
+    /**
+     * 2b. Search Doctors
+     * Case-insensitive substring search on name or specialty, with prefix matches first.
+     */
+    @GetMapping("/search/{query}")
+    public ResponseEntity<Map<String, Object>> searchDoctors(
+            @PathVariable String query,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            return new ResponseEntity<>(Map.of("message", "Limit must be between 1 and " + MAX_SEARCH_RESULTS), HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(Map.of("doctors", doctorService.searchDoctors(query, limit)), HttpStatus.OK);
     }
 
     /**
@@ -59,11 +148,7 @@ public class DoctorController {
      * Saves a new doctor to the database.
      */
     @PostMapping("/{token}")
-    public ResponseEntity<Map<String, String>> addDoctor(@PathVariable String token, @RequestBody Doctor doctor) {
-
-        if (service.validateToken(token, "admin") != null) {
-            return service.validateToken(token, "admin");
-        }
+    public ResponseEntity<Map<String, String>> addDoctor(@Authenticated("admin") AuthenticatedUser admin, @RequestBody Doctor doctor) {
 
         Map<String, String> response = new HashMap<>();
 
@@ -95,11 +180,7 @@ public class DoctorController {
      * Deletes a doctor and their associated appointments by ID.
      */
     @DeleteMapping("/{id}/{token}")
-    public ResponseEntity<Map<String, String>> deleteDoctor(@PathVariable long id, @PathVariable String token) {
-
-        if (service.validateToken(token, "admin") != null) {
-            return service.validateToken(token, "admin");
-        }
+    public ResponseEntity<Map<String, String>> deleteDoctor(@PathVariable long id, @Authenticated("admin") AuthenticatedUser admin) {
 
         Map<String, String> response = new HashMap<>();
 
@@ -131,10 +212,23 @@ public class DoctorController {
      * Filters doctors based on optional name, specialty, and time.
      */
     @GetMapping("/filter/{name}/{time}/{specialty}")
-    public Map<String, Object> filterDoctors(
+    public ResponseEntity<Map<String, Object>> filterDoctors(
             @PathVariable String name,
             @PathVariable String time,
-            @PathVariable String specialty) {
-        return service.filterDoctor(name, specialty, time);
+            @PathVariable String specialty,
+            WebRequest webRequest) {
+
+        String etag = doctorService.getDirectoryETag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return directoryResponse(etag).body(service.filterDoctor(name, specialty, time));
+    }
+
+    // Helper: directory responses may be stored but must be revalidated against the current ETag
+    private ResponseEntity.BodyBuilder directoryResponse(String etag) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache());
     }
 }
\ No newline at end of file
@@ -1,7 +1,10 @@
 package com.project.back_end.controllers;
 
 import com.project.back_end.DTO.Login;
+import com.project.back_end.auth.Authenticated;
+import com.project.back_end.auth.AuthenticatedUser;
 import com.project.back_end.models.Patient;
+import com.project.back_end.services.PatientRecordService;
 import com.project.back_end.services.PatientService;
 import com.project.back_end.services.Service;
 import org.springframework.http.HttpStatus;
@@ -10,6 +13,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("patient")
@@ -17,10 +21,12 @@ public class PatientController {
 
     private final PatientService patientService;
     private final Service service;
+    private final PatientRecordService patientRecordService;
 
-    public PatientController(PatientService patientService, Service service) {
+    public PatientController(PatientService patientService, Service service, PatientRecordService patientRecordService) {
         this.patientService = patientService;
         this.service = service;
+        this.patientRecordService = patientRecordService;
     }
 
     /**
@@ -48,14 +54,23 @@ public class PatientController {
      * Retrieves the details of a patient using their authentication token.
      */
     @GetMapping("/{token}")
-    public ResponseEntity<Map<String, Object>> getPatientDetails(@PathVariable String token) {
-        // Extracts patient info from the token
-        return patientService.getPatientDetails(token);
+    public ResponseEntity<Map<String, Object>> getPatientDetails(@Authenticated("patient") AuthenticatedUser patient) {
+        // The patient was resolved from the token by the authentication interceptor
+        return patientService.getPatientDetails(patient);
     }
 
     @GetMapping("/{id}/{user}/{token}")
-    public ResponseEntity<Map<String, Object>> getPatientAppointments(@PathVariable Long id, @PathVariable String user, @PathVariable String token) {
-        return patientService.getPatientAppointment(id, token);
+    public ResponseEntity<Map<String, Object>> getPatientAppointments(@PathVariable Long id, @Authenticated AuthenticatedUser caller) {
+        return patientService.getPatientAppointment(id, caller);
+    }
+
+    /**
+     * Retrieves a patient's full record in one call: details, appointments and each appointment's prescriptions.
+     * Appointments (MySQL) and prescriptions (MongoDB) are fetched concurrently.
+     */
+    @GetMapping("/record/{id}/{user}/{token}")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getPatientRecord(@PathVariable Long id, @Authenticated AuthenticatedUser caller) {
+        return patientRecordService.getPatientRecord(id, caller);
     }
 
     /**
@@ -63,12 +78,12 @@ public class PatientController {
      */
     @GetMapping("/appointments/{token}")
     public ResponseEntity<Map<String, Object>> filterPatientAppointments(
-            @PathVariable String token,
+            @Authenticated("patient") AuthenticatedUser patient,
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String condition) {
 
         // Delegates to the service to apply filtering logic based on provided criteria
-        return service.filterPatient(condition, name, token);
+        return service.filterPatient(condition, name, patient.getId());
     }
 }
 
@@ -1,24 +1,34 @@
 package com.project.back_end.controllers;
 
+import com.project.back_end.auth.Authenticated;
+import com.project.back_end.auth.AuthenticatedUser;
 import com.project.back_end.models.Prescription;
 import com.project.back_end.services.PrescriptionService;
-import com.project.back_end.services.Service;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+// Reads and single saves return Mono, so the request thread is released while Mongo answers
 @RestController
 @RequestMapping("${api.path}" + "prescription")
 public class PrescriptionController {
 
+    private static final int MAX_BATCH_SIZE = 100;
+
     private final PrescriptionService prescriptionService;
-    private final Service service;
 
-    public PrescriptionController(PrescriptionService prescriptionService, Service service) {
+    @Value("${prescription.bulk.max-size:1000}")
+    private int maxBulkSize;
+
+    public PrescriptionController(PrescriptionService prescriptionService) {
         this.prescriptionService = prescriptionService;
-        this.service = service;
     }
 
     /**
@@ -27,18 +37,45 @@ public class PrescriptionController {
      * Requires a valid Doctor token and a Prescription object in the body.
      */
     @PostMapping("/{token}")
-    public ResponseEntity<Map<String, String>> savePrescription(
-            @PathVariable String token,
+    public Mono<ResponseEntity<Map<String, String>>> savePrescription(
+            @Authenticated("doctor") AuthenticatedUser doctor,
             @RequestBody Prescription prescription) {
 
-        // 1. Validate that the user is a Doctor (only doctors can write prescriptions)
-        ResponseEntity<Map<String, String>> tokenValidation = service.validateToken(token, "doctor");
-        if (tokenValidation != null) {
-            return tokenValidation; // Returns 401 if invalid
+        // Only doctors can write prescriptions; the token was verified by the authentication interceptor
+        return prescriptionService.savePrescription(prescription);
+    }
+
+    /**
+     * Saves a batch of prescriptions with one unordered bulk write.
+     * Maps to POST /prescription/bulk/{token}
+     * Requires a valid Doctor token. Responds 201 when every item was stored, otherwise 207 with per-item results.
+     */
+    @PostMapping("/bulk/{token}")
+    public ResponseEntity<Map<String, Object>> savePrescriptions(
+            @Authenticated("doctor") AuthenticatedUser doctor,
+            @RequestBody List<Prescription> prescriptions) {
+
+        if (prescriptions.isEmpty() || prescriptions.size() > maxBulkSize) {
+            return new ResponseEntity<>(Map.of("message", "Between 1 and " + maxBulkSize + " prescriptions are required"), HttpStatus.BAD_REQUEST);
         }
+        return prescriptionService.savePrescriptions(prescriptions);
+    }
 
-        // 2. Delegate to service to save the prescription
-        return prescriptionService.savePrescription(prescription);
+    /**
+     * Retrieves prescriptions for several appointments at once, grouped by appointment ID.
+     * Maps to GET /prescription/batch/{token}?appointmentIds=1,2,3
+     * Requires a valid Doctor token.
+     */
+    @GetMapping("/batch/{token}")
+    public Mono<ResponseEntity<Map<String, Object>>> getPrescriptions(
+            @RequestParam List<Long> appointmentIds,
+            @Authenticated("doctor") AuthenticatedUser doctor) {
+
+        Set<Long> ids = new LinkedHashSet<>(appointmentIds);
+        if (ids.isEmpty() || ids.size() > MAX_BATCH_SIZE) {
+            return Mono.just(new ResponseEntity<>(Map.of("message", "Between 1 and " + MAX_BATCH_SIZE + " appointment IDs are required"), HttpStatus.BAD_REQUEST));
+        }
+        return prescriptionService.getPrescriptions(ids);
     }
 
     /**
@@ -47,18 +84,12 @@ public class PrescriptionController {
      * Requires a valid Patient (or Doctor) token.
      */
     @GetMapping("/{appointmentId}/{token}")
-    public ResponseEntity<Map<String, Object>> getPrescription(
+    public Mono<ResponseEntity<Map<String, Object>>> getPrescription(
             @PathVariable Long appointmentId,
-            @PathVariable String token) {
+            @Authenticated("patient") AuthenticatedUser patient) {
 
-        // 1. Validate the token (assuming Patients need to view their prescriptions)
+        // Patients view their prescriptions; the token was verified by the authentication interceptor
         // Note: You could also allow "doctor" here depending on requirements.
-        ResponseEntity<Map<String, String>> tokenValidation = service.validateToken(token, "patient");
-        if (tokenValidation != null) {
-            return new ResponseEntity<>(null, HttpStatus.UNAUTHORIZED);
-        }
-
-        // 2. Delegate to service to fetch the prescription
         return prescriptionService.getPrescription(appointmentId);
     }
 }
\ No newline at end of file
@@ -1,7 +1,10 @@
 package com.project.back_end.controllers;
 
+import com.project.back_end.models.Appointment;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -25,4 +28,25 @@ public class ValidationFailed {
 
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
     }
+
+    // Raised at commit when the row was changed by another request after it was read
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex) {
+        Map<String, String> errors = new HashMap<>();
+        errors.put("message", "The record was changed by someone else, reload and try again");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errors);
+    }
+
+    // Raised at commit when an appointment was moved onto a slot that another request just took
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, String>> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        Map<String, String> errors = new HashMap<>();
+        String message = ex.getMostSpecificCause().getMessage();
+        if (message != null && message.toLowerCase().contains(Appointment.DOCTOR_TIME_CONSTRAINT)) {
+            errors.put("message", "Time slot is already booked");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errors);
+        }
+        errors.put("message", "Request conflicts with existing data");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errors);
+    }
 }
\ No newline at end of file
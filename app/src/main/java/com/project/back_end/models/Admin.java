@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_admin_username", columnNames = "username"))
 public class Admin {
 
     @Id
@@ -12,7 +13,6 @@ public class Admin {
     private Long id;
 
     @NotNull(message = "Username cannot be null")
-    @Column(unique = true)
     private String username;
 
     @NotNull(message = "Password cannot be null")
@@ -9,8 +9,17 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = Appointment.DOCTOR_TIME_CONSTRAINT, columnNames = {"doctor_id", "appointment_time"}),
+        indexes = {
+                @Index(name = "idx_appointment_patient_status_time", columnList = "patient_id, status, appointment_time"),
+                @Index(name = "idx_appointment_status_time", columnList = "status, appointment_time"),
+                @Index(name = "idx_appointment_time", columnList = "appointment_time")
+        })
 public class Appointment {
 
+    // A doctor can only have one appointment starting at a given time
+    public static final String DOCTOR_TIME_CONSTRAINT = "uk_appointment_doctor_time";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -30,6 +39,11 @@ public class Appointment {
     @NotNull
     private int status;
 
+    // Optimistic locking; null for an appointment that has not been saved yet
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public Appointment() {
     }
 
@@ -81,6 +95,14 @@ public class Appointment {
         this.status = status;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Transient
     private LocalDateTime getEndTime() {
         return this.appointmentTime.plusHours(1);
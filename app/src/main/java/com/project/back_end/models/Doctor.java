@@ -6,10 +6,12 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_doctor_email", columnList = "email"))
 public class Doctor {
 
     @Id
@@ -38,7 +40,9 @@ public class Doctor {
     private String phone;
 
     // Each time slot is represented as a string (e.g., "09:00-10:00", "10:00-11:00")
+    // Batch-fetched so loading a list of doctors costs one extra select per 50 doctors rather than one each
     @ElementCollection(fetch = FetchType.EAGER)
+    @BatchSize(size = 50)
     private List<String> availableTimes;
 
     public Long getId() {
@@ -8,6 +8,10 @@ import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_patient_email", columnList = "email"),
+        @Index(name = "idx_patient_phone", columnList = "phone")
+})
 public class Patient {
 
     @Id
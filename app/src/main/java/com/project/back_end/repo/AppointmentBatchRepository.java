@@ -0,0 +1,41 @@
+package com.project.back_end.repo;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Multi-row appointment inserts through JDBC batching. Hibernate cannot batch
+ * inserts of IDENTITY-keyed entities, so series bookings bypass the entity
+ * manager and let MySQL assign the auto-increment ids.
+ */
+@Repository
+public class AppointmentBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO appointment (doctor_id, patient_id, appointment_time, status, version) VALUES (?, ?, ?, 0, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${booking.series.batch-size:50}")
+    private int batchSize;
+
+    public AppointmentBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Inserts all appointments in one transaction; any failure rolls back the whole series
+    @Transactional
+    public void insertAll(Long doctorId, Long patientId, List<LocalDateTime> appointmentTimes) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, appointmentTimes, batchSize, (ps, time) -> {
+            ps.setLong(1, doctorId);
+            ps.setLong(2, patientId);
+            ps.setTimestamp(3, Timestamp.valueOf(time));
+        });
+    }
+}
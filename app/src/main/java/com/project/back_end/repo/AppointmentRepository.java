@@ -1,6 +1,8 @@
 package com.project.back_end.repo;
 
+import com.project.back_end.DTO.AppointmentDTO;
 import com.project.back_end.models.Appointment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -9,53 +11,94 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
 
-    @Query("SELECT a FROM Appointment a " +
-            "LEFT JOIN FETCH a.doctor d " +
-            "LEFT JOIN FETCH d.availableTimes " +
-            "WHERE d.id = :doctorId AND a.appointmentTime BETWEEN :start AND :end")
-    List<Appointment> findByDoctorIdAndAppointmentTimeBetween(
+    // Shared head of every AppointmentDTO projection: one row per appointment, doctor and patient columns joined in
+    String APPOINTMENT_DTO_SELECT =
+            "SELECT new com.project.back_end.DTO.AppointmentDTO(a.id, d.id, d.name, p.id, p.name, p.email, p.phone, p.address, a.appointmentTime, a.status) " +
+            "FROM Appointment a JOIN a.doctor d JOIN a.patient p ";
+
+    // Doctor day view: flat rows straight from the join, no entity graphs
+    @Query(APPOINTMENT_DTO_SELECT +
+            "WHERE d.id = :doctorId AND a.appointmentTime BETWEEN :start AND :end " +
+            "ORDER BY a.appointmentTime")
+    List<AppointmentDTO> findDtosByDoctorIdAndAppointmentTimeBetween(
+            @Param("doctorId") Long doctorId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end);
+
+    @Query("SELECT a.appointmentTime FROM Appointment a " +
+            "WHERE a.doctor.id = :doctorId AND a.appointmentTime BETWEEN :start AND :end")
+    List<LocalDateTime> findAppointmentTimesByDoctorIdAndAppointmentTimeBetween(
             @Param("doctorId") Long doctorId,
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end);
 
-    @Query("SELECT a FROM Appointment a " +
-            "LEFT JOIN FETCH a.doctor d " +
-            "LEFT JOIN FETCH a.patient p " +
+    // Rows of [doctorId, appointmentTime] for several doctors at once
+    @Query("SELECT a.doctor.id, a.appointmentTime FROM Appointment a " +
+            "WHERE a.doctor.id IN :doctorIds AND a.appointmentTime BETWEEN :start AND :end")
+    List<Object[]> findDoctorIdsAndAppointmentTimesBetween(
+            @Param("doctorIds") Collection<Long> doctorIds,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end);
+
+    @Query(APPOINTMENT_DTO_SELECT +
             "WHERE d.id = :doctorId " +
             "AND LOWER(p.name) LIKE LOWER(CONCAT('%', :patientName, '%')) " +
-            "AND a.appointmentTime BETWEEN :start AND :end")
-    List<Appointment> findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
+            "AND a.appointmentTime BETWEEN :start AND :end " +
+            "ORDER BY a.appointmentTime")
+    List<AppointmentDTO> findDtosByDoctorIdAndPatientNameAndAppointmentTimeBetween(
             @Param("doctorId") Long doctorId,
             @Param("patientName") String patientName,
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end);
 
+    // Admin export of [start, end) in index order. Run by AppointmentExportService as a forward-only
+    // stream with a fetch size for the export alone, so the shared datasource needs no cursor settings
+    String APPOINTMENT_EXPORT_QUERY = APPOINTMENT_DTO_SELECT +
+            "WHERE a.appointmentTime >= :start AND a.appointmentTime < :end " +
+            "ORDER BY a.appointmentTime, a.id";
+
     @Modifying
     @Transactional
     @Query("DELETE FROM Appointment a WHERE a.doctor.id = :doctorId")
     void deleteAllByDoctorId(@Param("doctorId") Long doctorId);
 
-    List<Appointment> findByPatientId(Long patientId);
+    @Query(APPOINTMENT_DTO_SELECT +
+            "WHERE p.id = :patientId " +
+            "ORDER BY a.appointmentTime")
+    List<AppointmentDTO> findDtosByPatientId(@Param("patientId") Long patientId);
 
-    List<Appointment> findByPatient_IdAndStatusOrderByAppointmentTimeAsc(Long patientId, int status);
+    // Whether a doctor has ever had this patient: the relationship that lets a doctor read the patient's data
+    // Filters on the foreign keys directly; the derived form joins both parent tables first
+    @Query("SELECT COUNT(a) > 0 FROM Appointment a WHERE a.doctor.id = :doctorId AND a.patient.id = :patientId")
+    boolean existsByDoctorIdAndPatientId(@Param("doctorId") Long doctorId, @Param("patientId") Long patientId);
 
-    @Query("SELECT a FROM Appointment a " +
-            "WHERE LOWER(a.doctor.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) " +
-            "AND a.patient.id = :patientId")
-    List<Appointment> filterByDoctorNameAndPatientId(
+    @Query(APPOINTMENT_DTO_SELECT +
+            "WHERE p.id = :patientId AND a.status = :status " +
+            "ORDER BY a.appointmentTime")
+    List<AppointmentDTO> findDtosByPatientIdAndStatus(
+            @Param("patientId") Long patientId,
+            @Param("status") int status);
+
+    @Query(APPOINTMENT_DTO_SELECT +
+            "WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) " +
+            "AND p.id = :patientId " +
+            "ORDER BY a.appointmentTime")
+    List<AppointmentDTO> filterDtosByDoctorNameAndPatientId(
             @Param("doctorName") String doctorName,
             @Param("patientId") Long patientId);
 
-    @Query("SELECT a FROM Appointment a " +
-            "WHERE LOWER(a.doctor.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) " +
-            "AND a.patient.id = :patientId " +
-            "AND a.status = :status")
-    List<Appointment> filterByDoctorNameAndPatientIdAndStatus(
+    @Query(APPOINTMENT_DTO_SELECT +
+            "WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) " +
+            "AND p.id = :patientId " +
+            "AND a.status = :status " +
+            "ORDER BY a.appointmentTime")
+    List<AppointmentDTO> filterDtosByDoctorNameAndPatientIdAndStatus(
             @Param("doctorName") String doctorName,
             @Param("patientId") Long patientId,
             @Param("status") int status);
@@ -65,4 +108,20 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     @Query("UPDATE Appointment a SET a.status = :status WHERE a.id = :id")
     void updateStatus(@Param("status") int status, @Param("id") long id);
 
+    // Next chunk of [id, appointmentTime] rows still upcoming but started before the cutoff, oldest first.
+    // Rows marked past leave the (status, appointment_time) index range, so each chunk starts at the next pending row.
+    @Query("SELECT a.id, a.appointmentTime FROM Appointment a " +
+            "WHERE a.status = 0 AND a.appointmentTime < :cutoff " +
+            "ORDER BY a.appointmentTime, a.id")
+    List<Object[]> findPendingIdsAndTimes(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    // Bumps the version too, so a client holding the old version cannot overwrite the new status
+    @Modifying
+    @Transactional
+    @Query("UPDATE Appointment a SET a.status = 1, a.version = a.version + 1 WHERE a.id IN :ids AND a.status = 0")
+    int markPast(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT MIN(a.appointmentTime) FROM Appointment a WHERE a.status = 0 AND a.appointmentTime < :cutoff")
+    LocalDateTime findOldestPendingTime(@Param("cutoff") LocalDateTime cutoff);
+
 }
\ No newline at end of file
@@ -1,27 +1,37 @@
 package com.project.back_end.repo;
 
+import com.project.back_end.DTO.DoctorSummaryDTO;
 import com.project.back_end.models.Doctor;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface DoctorRepository extends JpaRepository<Doctor, Long> {
+public interface DoctorRepository extends JpaRepository<Doctor, Long>, JpaSpecificationExecutor<Doctor> {
 
     Doctor findByEmail(String email);
 
-    @Query("SELECT d FROM Doctor d WHERE d.name LIKE CONCAT('%', :name, '%')")
-    List<Doctor> findByNameLike(@Param("name") String name);
+    // Rows of [id, name, specialty, slot] for every doctor of a specialty, without loading entities
+    @Query("SELECT d.id, d.name, d.specialty, t FROM Doctor d JOIN d.availableTimes t WHERE LOWER(d.specialty) = LOWER(:specialty)")
+    List<Object[]> findSchedulesBySpecialty(@Param("specialty") String specialty);
 
-    @Query("SELECT d FROM Doctor d WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :name, '%')) " +
-            "AND LOWER(d.specialty) = LOWER(:specialty)")
-    List<Doctor> findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(
-            @Param("name") String name,
-            @Param("specialty") String specialty);
+    // Rows of [id, name, specialty], without loading entities or their available times
+    @Query("SELECT d.id, d.name, d.specialty FROM Doctor d")
+    List<Object[]> findAllIdsNamesAndSpecialties();
 
-    List<Doctor> findBySpecialtyIgnoreCase(String specialty);
+    // Keyset page of doctor summaries ordered by id; pass the last id of the previous page as the cursor
+    @Query("SELECT new com.project.back_end.DTO.DoctorSummaryDTO(d.id, d.name, d.specialty, d.email, d.phone) " +
+            "FROM Doctor d WHERE d.id > :afterId ORDER BY d.id")
+    List<DoctorSummaryDTO> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Rows of [doctorId, slot] for a whole page of doctors in one query
+    @Query("SELECT d.id, t FROM Doctor d JOIN d.availableTimes t WHERE d.id IN :doctorIds")
+    List<Object[]> findAvailableTimesByDoctorIds(@Param("doctorIds") Collection<Long> doctorIds);
 
 }
\ No newline at end of file
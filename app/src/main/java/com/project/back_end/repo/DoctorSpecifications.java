@@ -0,0 +1,59 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.Doctor;
+import jakarta.persistence.criteria.Join;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+/**
+ * Composable predicates for the doctor directory filter. Every predicate is
+ * evaluated by the database, including the slot filter, which joins the
+ * availableTimes element collection.
+ */
+public final class DoctorSpecifications {
+
+    private DoctorSpecifications() {
+    }
+
+    // Case-insensitive substring match on the doctor's name
+    public static Specification<Doctor> nameContains(String name) {
+        String pattern = "%" + name.toLowerCase() + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("name")), pattern);
+    }
+
+    public static Specification<Doctor> specialtyEquals(String specialty) {
+        String value = specialty.toLowerCase();
+        return (root, query, cb) -> cb.equal(cb.lower(root.get("specialty")), value);
+    }
+
+    /**
+     * Doctors offering a slot in the morning ("AM"), afternoon ("PM"), or exactly the given
+     * slot string (e.g. "09:00-10:00"). Slots start with a zero-padded "HH:mm", so string
+     * order matches time order.
+     */
+    public static Specification<Doctor> offersTime(String time) {
+        return (root, query, cb) -> {
+            query.distinct(true);
+            Join<Doctor, String> slot = root.join("availableTimes");
+            if ("AM".equalsIgnoreCase(time)) {
+                return cb.lessThan(slot, "12:00");
+            } else if ("PM".equalsIgnoreCase(time)) {
+                return cb.greaterThanOrEqualTo(slot, "12:00");
+            }
+            return cb.equal(slot, time);
+        };
+    }
+
+    // Case-insensitive substring match on the name or the specialty
+    public static Specification<Doctor> nameOrSpecialtyContains(String text) {
+        String pattern = "%" + text.toLowerCase() + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("name")), pattern),
+                cb.like(cb.lower(root.get("specialty")), pattern));
+    }
+
+    public static Specification<Doctor> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+}
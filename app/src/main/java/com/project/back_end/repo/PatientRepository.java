@@ -2,6 +2,8 @@ package com.project.back_end.repo;
 
 import com.project.back_end.models.Patient;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -9,7 +11,9 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
 
     Patient findByEmail(String email);
 
-    Patient findByEmailOrPhone(String email, String phone);
+    // A UNION of two lookups rather than "email = ? OR phone = ?", which the planner may answer with a full scan
+    @Query("SELECT p FROM Patient p WHERE p.email = :email UNION SELECT p FROM Patient p WHERE p.phone = :phone")
+    Patient findByEmailOrPhone(@Param("email") String email, @Param("phone") String phone);
 
 }
 
@@ -1,13 +1,17 @@
 package com.project.back_end.repo;
 
 import com.project.back_end.models.Prescription;
-import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
 
-import java.util.List;
+import java.util.Collection;
 
-public interface PrescriptionRepository extends MongoRepository<Prescription, String> {
+// Reactive so request threads are released while waiting on Mongo
+public interface PrescriptionRepository extends ReactiveMongoRepository<Prescription, String> {
 
-    List<Prescription> findByAppointmentId(Long appointmentId);
+    Flux<Prescription> findByAppointmentId(Long appointmentId);
 
-}
+    // One $in query for a whole set of appointments
+    Flux<Prescription> findByAppointmentIdIn(Collection<Long> appointmentIds);
 
+}
@@ -0,0 +1,139 @@
+package com.project.back_end.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.repo.AppointmentRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Writes appointments in a date range as CSV or newline-delimited JSON, one row at a
+ * time from a forward-only cursor. Memory use does not depend on the size of the range.
+ */
+@Service
+public class AppointmentExportService {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final String CSV_HEADER = "id,doctorId,doctorName,patientId,patientName,patientEmail,patientPhone,appointmentTime,status";
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter jsonWriter;
+    private final int fetchSize;
+
+    public AppointmentExportService(EntityManager entityManager, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                    @Value("${appointment.export.fetch-size:500}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.fetchSize = fetchSize;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.jsonWriter = objectMapper.writerFor(AppointmentDTO.class);
+    }
+
+    // 1. export: Streams appointments from the start of "from" to the end of "to" into the output
+    // Runs on the response thread, so the cursor and its transaction live exactly as long as the write
+    public void export(LocalDate from, LocalDate to, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<AppointmentDTO> rows = streamRows(from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+                    if (format == Format.CSV) {
+                        writeLine(writer, CSV_HEADER);
+                    }
+                    rows.forEach(row -> writeLine(writer, format == Format.CSV ? toCsv(row) : toJson(row)));
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // Usually the client went away mid-download
+        }
+        writer.flush();
+    }
+
+    // Helper: forward-only, read-only stream of the range; the fetch size applies to this statement only
+    private Stream<AppointmentDTO> streamRows(LocalDateTime start, LocalDateTime end) {
+        return entityManager.createQuery(AppointmentRepository.APPOINTMENT_EXPORT_QUERY, AppointmentDTO.class)
+                .setParameter("start", start)
+                .setParameter("end", end)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    // Helper: one CSV record; address is left out of the export
+    private static String toCsv(AppointmentDTO row) {
+        return String.join(",",
+                String.valueOf(row.getId()),
+                String.valueOf(row.getDoctorId()),
+                csvField(row.getDoctorName()),
+                String.valueOf(row.getPatientId()),
+                csvField(row.getPatientName()),
+                csvField(row.getPatientEmail()),
+                csvField(row.getPatientPhone()),
+                String.valueOf(row.getAppointmentTime()),
+                String.valueOf(row.getStatus()));
+    }
+
+    // Helper: quotes a field when it contains a delimiter, quote or line break (RFC 4180)
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private String toJson(AppointmentDTO row) {
+        try {
+            return jsonWriter.writeValueAsString(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeLine(Writer writer, String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
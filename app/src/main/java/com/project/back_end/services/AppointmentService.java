@@ -1,54 +1,213 @@
 package com.project.back_end.services;
 
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.AppointmentSeries;
+import com.project.back_end.auth.AuthenticatedUser;
 import com.project.back_end.models.Appointment;
-import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.AppointmentBatchRepository;
 import com.project.back_end.repo.AppointmentRepository;
-import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.repo.PatientRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 public class AppointmentService {
+    // How long a booking keeps its in-memory claim on the slot while inserting
+    private static final long BOOKING_CLAIM_SECONDS = 10;
+
     private final AppointmentRepository appointmentRepository;
     private final PatientRepository patientRepository;
-    private final DoctorRepository doctorRepository;
-    private final TokenService tokenService;
     private final com.project.back_end.services.Service validationService;
+    private final AvailabilityIndex availabilityIndex;
+    private final SlotHoldRegistry slotHolds;
+    private final AppointmentBatchRepository appointmentBatchRepository;
+    private final DoctorService doctorService;
+
+    @Value("${booking.series.max-occurrences:52}")
+    private int maxSeriesOccurrences;
+
+    @Value("${booking.series.max-interval-days:28}")
+    private int maxSeriesIntervalDays;
 
     public AppointmentService(AppointmentRepository appointmentRepository,
                               PatientRepository patientRepository,
-                              DoctorRepository doctorRepository,
-                              TokenService tokenService,
-                              com.project.back_end.services.Service validationService) {
+                              com.project.back_end.services.Service validationService,
+                              AvailabilityIndex availabilityIndex,
+                              SlotHoldRegistry slotHolds,
+                              AppointmentBatchRepository appointmentBatchRepository,
+                              DoctorService doctorService) {
         this.appointmentRepository = appointmentRepository;
         this.patientRepository = patientRepository;
-        this.doctorRepository = doctorRepository;
-        this.tokenService = tokenService;
         this.validationService = validationService;
+        this.availabilityIndex = availabilityIndex;
+        this.slotHolds = slotHolds;
+        this.appointmentBatchRepository = appointmentBatchRepository;
+        this.doctorService = doctorService;
     }
 
-    // 1. bookAppointment: Books a new appointment [cite: 399]
-    @Transactional
-    public int bookAppointment(Appointment appointment) {
-        try {
-            appointmentRepository.save(appointment); //
+    // 1. bookAppointment: Books a new appointment for the authenticated patient with a single insert
+    // Returns 1 on success, -1 if another patient holds or took the slot, 0 on any other failure.
+    // Not @Transactional: the insert commits on its own, so a constraint violation can be
+    // caught here instead of marking an outer transaction rollback-only.
+    public int bookAppointment(Appointment appointment, Long patientId) {
+        if (appointment.getDoctor() == null || appointment.getDoctor().getId() == null || appointment.getAppointmentTime() == null) {
+            return 0; // Failure
+        }
+        Long doctorId = appointment.getDoctor().getId();
+        LocalDateTime time = appointment.getAppointmentTime();
 
+        // Schedule check against the availability index only. The booking UI reads availability first, so
+        // the day is normally loaded; if not, the insert goes ahead and the database decides: the foreign
+        // key rejects an unknown doctor and the unique constraint a taken slot.
+        DailySlots day = availabilityIndex.peek(doctorId, time.toLocalDate());
+        if (day != null && !day.isFree(time.toLocalTime())) {
+            return day.getSchedule().offers(time.toLocalTime()) ? -1 : 0;
+        }
+
+        // The token decides who the appointment is for, never the request body; a client-sent id and
+        // version would turn the insert into a merge over an existing appointment
+        appointment.setPatient(patientRepository.getReferenceById(patientId));
+        appointment.setId(null);
+        appointment.setVersion(null);
 
+        // Claim the slot in memory first; concurrent requests for it are turned away here
+        SlotHoldRegistry.Claim claim = slotHolds.claim(doctorId, time, patientId, BOOKING_CLAIM_SECONDS);
+        if (claim == null) {
+            return -1; // Held by another patient
+        }
+        boolean booked = false;
+        try {
+            appointmentRepository.saveAndFlush(appointment);
+            availabilityIndex.book(doctorId, time);
+            booked = true;
             return 1; // Success
+        } catch (DataIntegrityViolationException e) {
+            if (isDoctorTimeConflict(e)) {
+                // Another booking won the race; make sure the index shows the slot as taken
+                availabilityIndex.book(doctorId, time);
+                return -1; // Conflict
+            }
+            return 0; // Failure
         } catch (Exception e) {
             return 0; // Failure
+        } finally {
+            // Keeps the patient's own hold if the booking did not go through
+            slotHolds.finishClaim(claim, booked);
+        }
+    }
+
+    // 1b. holdSlot: Reserves a free slot for the patient while they confirm the booking
+    public ResponseEntity<Map<String, Object>> holdSlot(Appointment appointment, Long patientId, long ttlSeconds) {
+        Map<String, Object> response = new HashMap<>();
+        if (validationService.validateAppointment(appointment) != 1) {
+            response.put("message", "Time slot unavailable or invalid doctor");
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        Instant expiresAt = slotHolds.tryHold(appointment.getDoctor().getId(), appointment.getAppointmentTime(), patientId, ttlSeconds);
+        if (expiresAt == null) {
+            response.put("message", "Time slot is held by another patient");
+            return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+        }
+        response.put("message", "Time slot held");
+        response.put("expiresAt", expiresAt);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    // 1c. releaseSlot: Gives up the patient's hold on a slot
+    public void releaseSlot(Long doctorId, LocalDateTime time, Long patientId) {
+        slotHolds.release(doctorId, time, patientId);
+    }
+
+    // 1d. bookSeries: Books a recurring series (e.g. weekly for 12 weeks) in one batched transaction
+    public ResponseEntity<Map<String, Object>> bookSeries(AppointmentSeries series, Long patientId) {
+        Map<String, Object> response = new HashMap<>();
+        LocalDateTime first = series.getFirstAppointmentTime();
+        if (series.getDoctorId() == null || first == null
+                || series.getOccurrences() < 1 || series.getOccurrences() > maxSeriesOccurrences
+                || series.getIntervalDays() < 1 || series.getIntervalDays() > maxSeriesIntervalDays) {
+            response.put("message", "A series needs a doctor, a future first appointment, 1 to "
+                    + maxSeriesOccurrences + " occurrences and an interval of 1 to " + maxSeriesIntervalDays + " days");
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        // Every occurrence must be in the future, not just the first one
+        LocalDateTime now = LocalDateTime.now();
+        List<LocalDateTime> times = new ArrayList<>(series.getOccurrences());
+        List<LocalDateTime> past = new ArrayList<>();
+        for (int i = 0; i < series.getOccurrences(); i++) {
+            LocalDateTime time = first.plusDays((long) i * series.getIntervalDays());
+            times.add(time);
+            if (!time.isAfter(now)) {
+                past.add(time);
+            }
+        }
+        if (!past.isEmpty()) {
+            response.put("message", "Appointments must be in the future");
+            response.put("past", past);
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        // Validate every slot against a single availability load of just the occurrence days
+        Long doctorId = series.getDoctorId();
+        Map<LocalDate, DailySlots> days = doctorService.getDailySlots(
+                doctorId, times.stream().map(LocalDateTime::toLocalDate).toList());
+        if (days == null) {
+            response.put("message", "Doctor not found");
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        // Claim every slot in memory before writing; give all claims back if any slot is taken
+        List<SlotHoldRegistry.Claim> claims = new ArrayList<>();
+        List<LocalDateTime> unavailable = new ArrayList<>();
+        for (LocalDateTime time : times) {
+            SlotHoldRegistry.Claim claim = days.get(time.toLocalDate()).isFree(time.toLocalTime())
+                    ? slotHolds.claim(doctorId, time, patientId, BOOKING_CLAIM_SECONDS) : null;
+            if (claim != null) {
+                claims.add(claim);
+            } else {
+                unavailable.add(time);
+            }
+        }
+        boolean booked = false;
+        try {
+            if (!unavailable.isEmpty()) {
+                response.put("message", "Some time slots are unavailable");
+                response.put("unavailable", unavailable);
+                return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+            }
+
+            appointmentBatchRepository.insertAll(doctorId, patientId, times);
+            times.forEach(time -> availabilityIndex.book(doctorId, time));
+            booked = true;
+        } catch (DataIntegrityViolationException e) {
+            // A slot was booked between validation and insert; the whole series was rolled back
+            response.put("message", isDoctorTimeConflict(e) || e instanceof DuplicateKeyException
+                    ? "A time slot was just booked by someone else" : "Invalid doctor or patient");
+            return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+        } finally {
+            boolean seriesBooked = booked;
+            claims.forEach(claim -> slotHolds.finishClaim(claim, seriesBooked));
         }
+
+        response.put("message", "Appointment series booked successfully");
+        response.put("appointmentTimes", times);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
     // 2. updateAppointment: Updates an existing appointment
@@ -56,15 +215,34 @@ public class AppointmentService {
     public ResponseEntity<Map<String, String>> updateAppointment(Appointment appointment) {
         Map<String, String> response = new HashMap<>();
         // Check if appointment exists
-        if (appointmentRepository.findById(appointment.getId()).isEmpty()) {
+        Appointment existing = appointmentRepository.findById(appointment.getId()).orElse(null);
+        if (existing == null) {
             response.put("message", "Appointment not found");
             return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
         }
+        // The client may send the version it last read to detect concurrent changes
+        if (appointment.getVersion() != null && !appointment.getVersion().equals(existing.getVersion())) {
+            response.put("message", "Appointment was changed by someone else, reload and try again");
+            return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+        }
+        // Remember the current slot before the update is applied to the managed entity
+        Long previousDoctorId = existing.getDoctor().getId();
+        LocalDateTime previousTime = existing.getAppointmentTime();
 
         // Validate appointment update using Service validation logic
         int validationResult = validationService.validateAppointment(appointment);
         if (validationResult == 1) {
-            appointmentRepository.save(appointment);
+            // Copy onto the loaded entity so the version check and increment apply on flush
+            existing.setDoctor(appointment.getDoctor());
+            existing.setPatient(appointment.getPatient());
+            existing.setAppointmentTime(appointment.getAppointmentTime());
+            existing.setStatus(appointment.getStatus());
+            Long doctorId = appointment.getDoctor().getId();
+            LocalDateTime time = appointment.getAppointmentTime();
+            TransactionHooks.afterCommit(() -> {
+                availabilityIndex.release(previousDoctorId, previousTime);
+                availabilityIndex.book(doctorId, time);
+            });
             response.put("message", "Appointment updated successfully");
             return new ResponseEntity<>(response, HttpStatus.OK);
         } else {
@@ -75,7 +253,7 @@ public class AppointmentService {
 
     // 3. cancelAppointment: Cancels an existing appointment
     @Transactional
-    public ResponseEntity<Map<String, String>> cancelAppointment(long id, String token) {
+    public ResponseEntity<Map<String, String>> cancelAppointment(long id, AuthenticatedUser patient) {
         Map<String, String> response = new HashMap<>();
         Appointment appointment = appointmentRepository.findById(id).orElse(null);
 
@@ -85,41 +263,51 @@ public class AppointmentService {
         }
 
         // Ensure patient canceling is the one who booked it [cite: 403]
-        String patientEmail = tokenService.extractIdentifier(token);
-        if (!appointment.getPatient().getEmail().equals(patientEmail)) {
+        if (!appointment.getPatient().getId().equals(patient.getId())) {
             response.put("message", "Unauthorized to cancel this appointment");
             return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
         }
 
-        appointmentRepository.delete(appointment); //
+        appointmentRepository.delete(appointment);
+        Long doctorId = appointment.getDoctor().getId();
+        LocalDateTime time = appointment.getAppointmentTime();
+        TransactionHooks.afterCommit(() -> availabilityIndex.release(doctorId, time));
         response.put("message", "Appointment cancelled successfully");
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
     // 4. getAppointment: Retrieves appointments for a doctor on a specific date
     @Transactional(readOnly = true)
-    public Map<String, Object> getAppointment(String pname, LocalDate date, String token) {
+    public Map<String, Object> getAppointment(String pname, LocalDate date, Long doctorId) {
         Map<String, Object> response = new HashMap<>();
-        String doctorEmail = tokenService.extractIdentifier(token);
-        Doctor doctor = doctorRepository.findByEmail(doctorEmail);
-
-        if (doctor != null) {
-            LocalDateTime startOfDay = date.atStartOfDay();
-            LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
-
-            // Fetch doctor's appointments for the day
-            List<Appointment> appointments = appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(
-                    doctor.getId(), startOfDay, endOfDay);
-
-            // Filter by patient name if provided
-            if (pname != null && !pname.isEmpty() && !pname.equals("null")) {
-                appointments = appointments.stream()
-                        .filter(a -> a.getPatient().getName().toLowerCase().contains(pname.toLowerCase()))
-                        .collect(Collectors.toList());
-            }
+        LocalDateTime startOfDay = date.atStartOfDay();
+        LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
 
-            response.put("appointments", appointments);
+        // The patient name filter, if provided, runs in the query rather than over loaded entities
+        List<AppointmentDTO> appointments;
+        if (pname != null && !pname.isBlank() && !pname.equals("null")) {
+            appointments = appointmentRepository.findDtosByDoctorIdAndPatientNameAndAppointmentTimeBetween(
+                    doctorId, pname.trim(), startOfDay, endOfDay);
+        } else {
+            appointments = appointmentRepository.findDtosByDoctorIdAndAppointmentTimeBetween(
+                    doctorId, startOfDay, endOfDay);
         }
+
+        response.put("appointments", appointments);
         return response;
     }
+
+    // Helper: true if the violation is the one-appointment-per-doctor-and-time constraint
+    static boolean isDoctorTimeConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase().contains(Appointment.DOCTOR_TIME_CONSTRAINT)) {
+                return true;
+            }
+            if (cause.getMessage() != null && cause.getMessage().toLowerCase().contains(Appointment.DOCTOR_TIME_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
\ No newline at end of file
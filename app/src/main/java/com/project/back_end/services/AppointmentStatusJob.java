@@ -0,0 +1,124 @@
+package com.project.back_end.services;
+
+import com.project.back_end.repo.AppointmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves elapsed appointments from upcoming (status 0) to past (status 1).
+ *
+ * Each run walks the pending rows in appointment-time order, a bounded chunk at a time:
+ * one indexed select for the chunk's ids, then one UPDATE by primary key in its own short
+ * transaction. The select reads status = 0 AND appointment_time < cutoff from the
+ * (status, appointment_time) index, where rows already marked past no longer appear, so no
+ * position has to be remembered between chunks or runs. Rows inserted, rescheduled or reset
+ * to upcoming with an earlier time are therefore picked up by the next run.
+ */
+@Component
+public class AppointmentStatusJob {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentStatusJob.class);
+
+    private final AppointmentRepository appointmentRepository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration grace;
+
+    // A lock rather than synchronized: a run blocks on the database, which would pin a virtual thread's carrier
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Published without the lock so stats() never waits for a run in progress
+    private final AtomicLong rowsProcessed = new AtomicLong();
+    private volatile LastRun lastRun = new LastRun(0, 0, null, 0);
+
+    public AppointmentStatusJob(AppointmentRepository appointmentRepository,
+                                @Value("${appointment.status-job.enabled:true}") boolean enabled,
+                                @Value("${appointment.status-job.batch-size:500}") int batchSize,
+                                @Value("${appointment.status-job.max-batches-per-run:100}") int maxBatchesPerRun,
+                                @Value("${appointment.status-job.grace-minutes:60}") long graceMinutes) {
+        this.appointmentRepository = appointmentRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.grace = Duration.ofMinutes(graceMinutes);
+    }
+
+    @Scheduled(fixedDelayString = "${appointment.status-job.interval-ms:60000}",
+            initialDelayString = "${appointment.status-job.initial-delay-ms:30000}")
+    public void run() {
+        if (enabled) {
+            runOnce(LocalDateTime.now());
+        }
+    }
+
+    // Marks appointments that ended before now minus the grace period; returns the rows updated
+    public long runOnce(LocalDateTime now) {
+        lock.lock();
+        try {
+            return runLocked(now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long runLocked(LocalDateTime now) {
+        long started = System.nanoTime();
+        LocalDateTime cutoff = now.minus(grace);
+        long updated = 0;
+        long lagSeconds = lastRun.lagSeconds();
+
+        try {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                List<Object[]> chunk = appointmentRepository.findPendingIdsAndTimes(cutoff, PageRequest.ofSize(batchSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+
+                List<Long> ids = chunk.stream().map(row -> (Long) row[0]).toList();
+                int marked = appointmentRepository.markPast(ids);
+                updated += marked;
+                rowsProcessed.addAndGet(marked);
+
+                if (chunk.size() < batchSize) {
+                    break;
+                }
+            }
+
+            LocalDateTime oldestPending = appointmentRepository.findOldestPendingTime(cutoff);
+            lagSeconds = oldestPending == null ? 0 : Duration.between(oldestPending, cutoff).toSeconds();
+        } catch (RuntimeException e) {
+            log.warn("Appointment status job stopped after {} rows; the rest is picked up by the next run", updated, e);
+        }
+
+        lastRun = new LastRun(updated, Duration.ofNanos(System.nanoTime() - started).toMillis(), now, lagSeconds);
+        return updated;
+    }
+
+    public Map<String, Object> stats() {
+        LastRun run = lastRun;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("rowsProcessed", rowsProcessed.get());
+        stats.put("lastRunRows", run.rows());
+        stats.put("lastRunMillis", run.millis());
+        stats.put("lastRunAt", run.at());
+        stats.put("lagSeconds", run.lagSeconds());
+        return stats;
+    }
+
+    // One immutable snapshot per finished run, so the fields are always read together
+    private record LastRun(long rows, long millis, LocalDateTime at, long lagSeconds) {
+    }
+}
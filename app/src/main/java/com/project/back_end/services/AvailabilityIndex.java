@@ -0,0 +1,134 @@
+package com.project.back_end.services;
+
+import com.project.back_end.cache.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-memory availability keyed by (doctorId, date). Days are loaded lazily on
+ * first read, kept up to date in place by booking, rescheduling and cancelling,
+ * and evicted least recently used once the index is full.
+ *
+ * Updates must be applied after the writing transaction commits. A load that
+ * overlaps with an update of the same doctor is returned to its caller but not
+ * kept, so the index never holds a day read before a committed change. Loads of
+ * other doctors are unaffected, so the index keeps filling under write load.
+ */
+@Component
+public class AvailabilityIndex {
+
+    private final BoundedCache<DoctorDay, DailySlots> days;
+    // Per doctor, incremented by every update of that doctor; guards lazy loads against concurrent writes
+    private final Map<Long, Long> generations = new HashMap<>();
+
+    public AvailabilityIndex(@Value("${availability.index.max-size:5000}") int maxSize) {
+        this.days = new BoundedCache<>(maxSize);
+    }
+
+    public DailySlots get(Long doctorId, LocalDate date, Supplier<DailySlots> loader) {
+        DoctorDay key = new DoctorDay(doctorId, date);
+        DailySlots slots = days.get(key);
+        if (slots != null) {
+            return slots;
+        }
+
+        long loadGeneration = generation(doctorId);
+        slots = loader.get();
+        if (slots != null) {
+            synchronized (this) {
+                if (generation(doctorId) == loadGeneration) {
+                    days.put(key, slots);
+                }
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Returns the given days of a doctor, in the order given. Days that are not loaded yet are
+     * fetched with a single call to {@code loader}, which receives only the missing dates.
+     * Returns null if the loader reports an unknown doctor.
+     */
+    public Map<LocalDate, DailySlots> getAll(Long doctorId, List<LocalDate> dates,
+                                             Function<List<LocalDate>, Map<LocalDate, DailySlots>> loader) {
+        Map<LocalDate, DailySlots> result = new LinkedHashMap<>();
+        List<LocalDate> missing = new ArrayList<>();
+        for (LocalDate date : dates) {
+            DailySlots slots = days.get(new DoctorDay(doctorId, date));
+            result.put(date, slots);
+            if (slots == null) {
+                missing.add(date);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long loadGeneration = generation(doctorId);
+        Map<LocalDate, DailySlots> loaded = loader.apply(missing);
+        if (loaded == null) {
+            return null;
+        }
+        synchronized (this) {
+            boolean keep = generation(doctorId) == loadGeneration;
+            for (LocalDate date : missing) {
+                DailySlots slots = loaded.get(date);
+                result.put(date, slots);
+                if (keep) {
+                    days.put(new DoctorDay(doctorId, date), slots);
+                }
+            }
+        }
+        return result;
+    }
+
+    // The day if it is already loaded, else null; never loads, so it costs no query
+    public DailySlots peek(Long doctorId, LocalDate date) {
+        return days.peek(new DoctorDay(doctorId, date));
+    }
+
+    // Marks a newly booked appointment time as taken, if its day is loaded
+    public synchronized void book(Long doctorId, LocalDateTime time) {
+        generations.merge(doctorId, 1L, Long::sum);
+        DailySlots slots = days.peek(new DoctorDay(doctorId, time.toLocalDate()));
+        if (slots != null) {
+            slots.book(time.toLocalTime());
+        }
+    }
+
+    // Frees the slot of a cancelled or moved appointment, if its day is loaded
+    public synchronized void release(Long doctorId, LocalDateTime time) {
+        generations.merge(doctorId, 1L, Long::sum);
+        DailySlots slots = days.peek(new DoctorDay(doctorId, time.toLocalDate()));
+        if (slots != null) {
+            slots.release(time.toLocalTime());
+        }
+    }
+
+    // Drops every loaded day of a doctor, e.g. after their schedule changed
+    public synchronized void evictDoctor(Long doctorId) {
+        generations.merge(doctorId, 1L, Long::sum);
+        days.invalidateIf((key, slots) -> key.doctorId().equals(doctorId));
+    }
+
+    private synchronized long generation(Long doctorId) {
+        return generations.getOrDefault(doctorId, 0L);
+    }
+
+    public Map<String, Object> stats() {
+        return days.stats();
+    }
+
+    private record DoctorDay(Long doctorId, LocalDate date) {
+    }
+}
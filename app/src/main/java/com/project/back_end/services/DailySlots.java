@@ -0,0 +1,70 @@
+package com.project.back_end.services;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The booked/free state of one doctor's slots on one day: the doctor's
+ * {@link SlotSchedule} plus a bitset of the start minutes already taken.
+ * Conversion back to slot strings only happens in {@link #freeLabels()}.
+ * Instances may be shared through the {@link AvailabilityIndex}, so access is synchronized.
+ */
+public final class DailySlots {
+
+    private final SlotSchedule schedule;
+    private final BitSet booked = new BitSet(SlotSchedule.MINUTES_PER_DAY);
+
+    public DailySlots(SlotSchedule schedule) {
+        this.schedule = schedule;
+    }
+
+    public SlotSchedule getSchedule() {
+        return schedule;
+    }
+
+    // Marks the slot starting at this time as taken; times outside the schedule are ignored
+    public synchronized void book(LocalTime time) {
+        int minute = SlotSchedule.minuteOf(time);
+        if (schedule.offers(minute)) {
+            booked.set(minute);
+        }
+    }
+
+    public synchronized void release(LocalTime time) {
+        int minute = SlotSchedule.minuteOf(time);
+        if (minute >= 0) {
+            booked.clear(minute);
+        }
+    }
+
+    public synchronized boolean isFree(int minute) {
+        return schedule.offers(minute) && !booked.get(minute);
+    }
+
+    public synchronized boolean isFree(LocalTime time) {
+        return isFree(SlotSchedule.minuteOf(time));
+    }
+
+    // Position (in the schedule) of the first free slot at or after position k, or -1
+    public synchronized int nextFree(int k) {
+        for (int i = Math.max(k, 0); i < schedule.size(); i++) {
+            if (!booked.get(schedule.startMinute(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Free slots as the "09:00-10:00" strings returned by the API
+    public synchronized List<String> freeLabels() {
+        List<String> labels = new ArrayList<>(schedule.size());
+        for (int k = 0; k < schedule.size(); k++) {
+            if (!booked.get(schedule.startMinute(k))) {
+                labels.add(schedule.label(k));
+            }
+        }
+        return labels;
+    }
+}
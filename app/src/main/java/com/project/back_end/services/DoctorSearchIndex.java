@@ -0,0 +1,243 @@
+package com.project.back_end.services;
+
+import com.project.back_end.repo.DoctorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over doctor names and specialties for case-insensitive
+ * substring and prefix search. Queries of three or more characters intersect the
+ * posting lists of their trigrams and then confirm each candidate; shorter
+ * queries scan the (small) in-memory entries.
+ *
+ * The index is built once the application is ready and kept current by
+ * DoctorService writes. Until it is built, callers fall back to SQL.
+ */
+@Component
+public class DoctorSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(DoctorSearchIndex.class);
+    private static final int GRAM = 3;
+
+    private final DoctorRepository doctorRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<String, Set<Long>> nameGrams = new HashMap<>();
+    private final Map<String, Set<Long>> specialtyGrams = new HashMap<>();
+    // Writes made while a build reads the table, replayed onto the new snapshot; null when not building.
+    // A null value records a removal.
+    private Map<Long, Entry> writesDuringBuild;
+    private volatile boolean ready;
+
+    public DoctorSearchIndex(DoctorRepository doctorRepository) {
+        this.doctorRepository = doctorRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        lock.writeLock().lock();
+        try {
+            writesDuringBuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            List<Object[]> rows = doctorRepository.findAllIdsNamesAndSpecialties();
+            lock.writeLock().lock();
+            try {
+                entries.clear();
+                nameGrams.clear();
+                specialtyGrams.clear();
+                for (Object[] row : rows) {
+                    add((Long) row[0], (String) row[1], (String) row[2]);
+                }
+                // The snapshot may predate these writes, so apply them again on top of it
+                writesDuringBuild.forEach((id, entry) -> {
+                    remove(id, entries.get(id));
+                    if (entry != null) {
+                        add(id, entry.name, entry.specialty);
+                    }
+                });
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Doctor search index built with {} doctors", rows.size());
+        } catch (RuntimeException e) {
+            // Stay cold; searches keep using SQL until the next successful build
+            logger.warn("Doctor search index could not be built, falling back to SQL", e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                writesDuringBuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Adds or replaces a doctor after it was saved or updated
+    public void put(Long id, String name, String specialty) {
+        lock.writeLock().lock();
+        try {
+            remove(id, entries.get(id));
+            add(id, name, specialty);
+            if (writesDuringBuild != null) {
+                writesDuringBuild.put(id, entries.get(id));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            remove(id, entries.get(id));
+            if (writesDuringBuild != null) {
+                writesDuringBuild.put(id, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ids of doctors whose name contains the query, ignoring case
+    public Set<Long> matchName(String query) {
+        String q = query.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            return match(q, nameGrams, true);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of doctors whose name or specialty contains the query, ignoring case. Names
+     * starting with the query come first, then names with a word starting with it,
+     * then the remaining matches; ties are ordered by name.
+     */
+    public List<Long> search(String query, int limit) {
+        String q = query.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            Set<Long> ids = match(q, nameGrams, true);
+            ids.addAll(match(q, specialtyGrams, false));
+            List<Entry> matches = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                matches.add(entries.get(id));
+            }
+            matches.sort(Comparator.comparingInt((Entry e) -> e.rank(q)).thenComparing(e -> e.name));
+            List<Long> result = new ArrayList<>(Math.min(limit, matches.size()));
+            for (int i = 0; i < matches.size() && i < limit; i++) {
+                result.add(matches.get(i).id);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Callers hold the read or write lock
+    private Set<Long> match(String q, Map<String, Set<Long>> grams, boolean byName) {
+        Set<Long> result = new HashSet<>();
+        if (q.length() < GRAM) {
+            for (Entry entry : entries.values()) {
+                if ((byName ? entry.name : entry.specialty).contains(q)) {
+                    result.add(entry.id);
+                }
+            }
+            return result;
+        }
+
+        // Intersect posting lists, smallest first, then confirm the full substring
+        List<Set<Long>> postings = new ArrayList<>();
+        for (String gram : trigrams(q)) {
+            Set<Long> ids = grams.get(gram);
+            if (ids == null) {
+                return result;
+            }
+            postings.add(ids);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        result.addAll(postings.get(0));
+        for (int i = 1; i < postings.size() && !result.isEmpty(); i++) {
+            result.retainAll(postings.get(i));
+        }
+        result.removeIf(id -> !(byName ? entries.get(id).name : entries.get(id).specialty).contains(q));
+        return result;
+    }
+
+    private void add(Long id, String name, String specialty) {
+        Entry entry = new Entry(id, lower(name), lower(specialty));
+        entries.put(id, entry);
+        for (String gram : trigrams(entry.name)) {
+            nameGrams.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+        }
+        for (String gram : trigrams(entry.specialty)) {
+            specialtyGrams.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void remove(Long id, Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        entries.remove(id);
+        unlink(id, trigrams(entry.name), nameGrams);
+        unlink(id, trigrams(entry.specialty), specialtyGrams);
+    }
+
+    private static void unlink(Long id, Set<String> keys, Map<String, Set<Long>> grams) {
+        for (String gram : keys) {
+            Set<Long> ids = grams.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    grams.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Set<String> trigrams(String s) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= s.length(); i++) {
+            grams.add(s.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static String lower(String s) {
+        return s == null ? "" : s.toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(Long id, String name, String specialty) {
+        // 0: name starts with q, 1: a word of the name starts with q, 2: any other match
+        int rank(String q) {
+            if (name.startsWith(q)) {
+                return 0;
+            }
+            return name.contains(" " + q) ? 1 : 2;
+        }
+    }
+}
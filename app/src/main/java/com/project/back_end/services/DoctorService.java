@@ -1,10 +1,15 @@
 package com.project.back_end.services;
 
-import com.project.back_end.models.Appointment;
+import com.project.back_end.DTO.AvailableSlotDTO;
+import com.project.back_end.DTO.DoctorSummaryDTO;
 import com.project.back_end.models.Doctor;
 import com.project.back_end.DTO.Login;
 import com.project.back_end.repo.AppointmentRepository;
 import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.DoctorSpecifications;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -13,12 +18,17 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class DoctorService {
@@ -26,39 +36,144 @@ public class DoctorService {
     private final DoctorRepository doctorRepository;
     private final AppointmentRepository appointmentRepository;
     private final TokenService tokenService;
+    private final AvailabilityIndex availabilityIndex;
+    private final DoctorSearchIndex doctorSearchIndex;
 
-    public DoctorService(DoctorRepository doctorRepository, AppointmentRepository appointmentRepository, TokenService tokenService) {
+    // Bumped after every committed doctor write; combined with the boot time so restarts never reuse a tag
+    private final AtomicLong directoryVersion = new AtomicLong();
+    private final long directoryEpoch = System.currentTimeMillis();
+
+    public DoctorService(DoctorRepository doctorRepository, AppointmentRepository appointmentRepository, TokenService tokenService, AvailabilityIndex availabilityIndex, DoctorSearchIndex doctorSearchIndex) {
         this.doctorRepository = doctorRepository;
         this.appointmentRepository = appointmentRepository;
         this.tokenService = tokenService;
+        this.availabilityIndex = availabilityIndex;
+        this.doctorSearchIndex = doctorSearchIndex;
     }
 
     // 1. getDoctorAvailability: Fetches available slots for a doctor on a given date
-    @Transactional(readOnly = true)
     public List<String> getDoctorAvailability(Long doctorId, LocalDate date) {
-        Doctor doctor = doctorRepository.findById(doctorId).orElse(null);
-        if (doctor == null) {
+        DailySlots slots = getDailySlots(doctorId, date);
+        if (slots == null) {
+            return Collections.emptyList();
+        }
+        // Slot strings are only produced here, at the API edge
+        return slots.freeLabels();
+    }
+
+    // 1b. getDailySlots: Booked/free slot bitset for a doctor on a given date (null if the doctor is unknown)
+    // Served from the availability index; no transaction is opened unless the day has to be loaded
+    public DailySlots getDailySlots(Long doctorId, LocalDate date) {
+        return availabilityIndex.get(doctorId, date, () -> {
+            Map<LocalDate, DailySlots> loaded = loadDailySlots(doctorId, List.of(date));
+            return loaded != null ? loaded.get(date) : null;
+        });
+    }
+
+    // 1c. getDoctorAvailability (range): Free slots for every day from 'from' to 'to', keyed by date
+    public Map<LocalDate, List<String>> getDoctorAvailability(Long doctorId, LocalDate from, LocalDate to) {
+        Map<LocalDate, DailySlots> days = getDailySlots(doctorId, from, to);
+        if (days == null) {
+            return Collections.emptyMap();
+        }
+        Map<LocalDate, List<String>> availability = new LinkedHashMap<>();
+        days.forEach((date, slots) -> availability.put(date, slots.freeLabels()));
+        return availability;
+    }
+
+    // 1d. getDailySlots (range): Slot bitsets for every day of the window, loading missing days in one query
+    public Map<LocalDate, DailySlots> getDailySlots(Long doctorId, LocalDate from, LocalDate to) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            dates.add(date);
+        }
+        return getDailySlots(doctorId, dates);
+    }
+
+    // 1f. getDailySlots (dates): Slot bitsets for the given days only, loading missing days in one query
+    public Map<LocalDate, DailySlots> getDailySlots(Long doctorId, List<LocalDate> dates) {
+        return availabilityIndex.getAll(doctorId, dates, missing -> loadDailySlots(doctorId, missing));
+    }
+
+    // 1e. findEarliestSlots: The 'limit' earliest free slots across all doctors of a specialty within a date window
+    @Transactional(readOnly = true)
+    public List<AvailableSlotDTO> findEarliestSlots(String specialty, LocalDate from, LocalDate to, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        // Only ids, names and slot labels are read; doctors without available times have no rows
+        Map<Long, DoctorSchedule> doctors = new LinkedHashMap<>();
+        for (Object[] row : doctorRepository.findSchedulesBySpecialty(specialty)) {
+            doctors.computeIfAbsent((Long) row[0], id -> new DoctorSchedule(id, (String) row[1], (String) row[2], new ArrayList<>()))
+                    .availableTimes().add((String) row[3]);
+        }
+        if (doctors.isEmpty()) {
             return Collections.emptyList();
         }
 
-        // Fetch all appointments for this doctor on the specific date
-        LocalDateTime startOfDay = date.atStartOfDay();
-        LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
-        List<Appointment> appointments = appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(doctorId, startOfDay, endOfDay);
+        // Build an empty day for every doctor and date, then mark bookings from one grouped query
+        Map<Long, DailySlots[]> daysByDoctor = new HashMap<>();
+        int dayCount = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        for (DoctorSchedule doctor : doctors.values()) {
+            SlotSchedule schedule = SlotSchedule.of(doctor.availableTimes());
+            DailySlots[] days = new DailySlots[dayCount];
+            for (int i = 0; i < dayCount; i++) {
+                days[i] = new DailySlots(schedule);
+            }
+            daysByDoctor.put(doctor.id(), days);
+        }
+        List<Object[]> booked = appointmentRepository.findDoctorIdsAndAppointmentTimesBetween(
+                daysByDoctor.keySet(), from.atStartOfDay(), to.atTime(LocalTime.MAX));
+        for (Object[] row : booked) {
+            LocalDateTime time = (LocalDateTime) row[1];
+            daysByDoctor.get((Long) row[0])[(int) ChronoUnit.DAYS.between(from, time.toLocalDate())].book(time.toLocalTime());
+        }
+
+        // Merge the doctors' chronologically ordered free slots, always taking the earliest one next
+        LocalDateTime notBefore = LocalDateTime.now();
+        PriorityQueue<FreeSlotCursor> queue = new PriorityQueue<>(Comparator.comparing(FreeSlotCursor::current));
+        for (DoctorSchedule doctor : doctors.values()) {
+            FreeSlotCursor cursor = new FreeSlotCursor(doctor, from, daysByDoctor.get(doctor.id()));
+            if (cursor.seek(notBefore)) {
+                queue.add(cursor);
+            }
+        }
 
-        // Get the doctor's standard available times
-        List<String> availableSlots = new ArrayList<>(doctor.getAvailableTimes());
+        List<AvailableSlotDTO> earliest = new ArrayList<>(limit);
+        while (!queue.isEmpty() && earliest.size() < limit) {
+            FreeSlotCursor cursor = queue.poll();
+            earliest.add(cursor.toDTO());
+            if (cursor.advance(notBefore)) {
+                queue.add(cursor);
+            }
+        }
+        return earliest;
+    }
+
+    // Loads the doctor's schedule once and the appointments of the whole window in a single query
+    private Map<LocalDate, DailySlots> loadDailySlots(Long doctorId, List<LocalDate> dates) {
+        Doctor doctor = doctorRepository.findById(doctorId).orElse(null);
+        if (doctor == null) {
+            return null;
+        }
 
-        // Remove slots that are already booked
-        for (Appointment appointment : appointments) {
-            // Assuming the slot string starts with the time (e.g., "10:00-11:00")
-            // and appointment time matches the start of the slot.
-            String bookedTime = appointment.getAppointmentTime().toLocalTime().toString();
-            // Simple logic to remove the slot if it starts with the booked time
-            availableSlots.removeIf(slot -> slot.startsWith(bookedTime));
+        // Only the requested days are built; the dates may be spread over a long window
+        SlotSchedule schedule = SlotSchedule.of(doctor.getAvailableTimes());
+        Map<LocalDate, DailySlots> days = new LinkedHashMap<>();
+        for (LocalDate date : dates) {
+            days.put(date, new DailySlots(schedule));
         }
 
-        return availableSlots;
+        // Mark every appointment on those days as booked; times that are not a slot start are ignored
+        LocalDateTime start = Collections.min(dates).atStartOfDay();
+        LocalDateTime end = Collections.max(dates).atTime(LocalTime.MAX);
+        for (LocalDateTime booked : appointmentRepository.findAppointmentTimesByDoctorIdAndAppointmentTimeBetween(doctorId, start, end)) {
+            DailySlots slots = days.get(booked.toLocalDate());
+            if (slots != null) {
+                slots.book(booked.toLocalTime());
+            }
+        }
+        return days;
     }
 
     // 2. saveDoctor: Saves a new doctor to the database
@@ -69,7 +184,11 @@ public class DoctorService {
             if (doctorRepository.findByEmail(doctor.getEmail()) != null) {
                 return -1; // Conflict
             }
-            doctorRepository.save(doctor);
+            Doctor saved = doctorRepository.save(doctor);
+            TransactionHooks.afterCommit(() -> {
+                doctorSearchIndex.put(saved.getId(), saved.getName(), saved.getSpecialty());
+                directoryVersion.incrementAndGet();
+            });
             return 1; // Success
         } catch (Exception e) {
             return 0; // Internal Error
@@ -83,7 +202,14 @@ public class DoctorService {
             if (!doctorRepository.existsById(doctor.getId())) {
                 return -1; // Not found
             }
-            doctorRepository.save(doctor);
+            Doctor saved = doctorRepository.save(doctor);
+            Long doctorId = saved.getId();
+            TransactionHooks.afterCommit(() -> {
+                tokenService.evictPrincipal("doctor", doctorId);
+                availabilityIndex.evictDoctor(doctorId); // The schedule may have changed
+                doctorSearchIndex.put(doctorId, saved.getName(), saved.getSpecialty());
+                directoryVersion.incrementAndGet();
+            });
             return 1; // Success
         } catch (Exception e) {
             return 0; // Internal Error
@@ -96,6 +222,32 @@ public class DoctorService {
         return doctorRepository.findAll();
     }
 
+    // 4b. getDoctorPage: Keyset page of doctor summaries after the given id, with available times in one batched query
+    @Transactional(readOnly = true)
+    public Map<String, Object> getDoctorPage(Long afterId, int size) {
+        // Fetch one extra row to learn whether another page exists without a count query
+        List<DoctorSummaryDTO> doctors = doctorRepository.findSummariesAfter(afterId == null ? 0L : afterId, PageRequest.ofSize(size + 1));
+        boolean hasMore = doctors.size() > size;
+        if (hasMore) {
+            doctors = doctors.subList(0, size);
+        }
+
+        if (!doctors.isEmpty()) {
+            Map<Long, DoctorSummaryDTO> byId = new HashMap<>();
+            for (DoctorSummaryDTO doctor : doctors) {
+                byId.put(doctor.getId(), doctor);
+            }
+            for (Object[] row : doctorRepository.findAvailableTimesByDoctorIds(byId.keySet())) {
+                byId.get((Long) row[0]).getAvailableTimes().add((String) row[1]);
+            }
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("doctors", doctors);
+        response.put("nextCursor", hasMore ? doctors.get(doctors.size() - 1).getId() : null);
+        return response;
+    }
+
     // 5. deleteDoctor: Deletes a doctor by ID
     @Transactional
     public int deleteDoctor(long id) {
@@ -106,6 +258,12 @@ public class DoctorService {
             // Delete associated appointments first
             appointmentRepository.deleteAllByDoctorId(id);
             doctorRepository.deleteById(id);
+            TransactionHooks.afterCommit(() -> {
+                tokenService.revokePrincipal("doctor", id);
+                availabilityIndex.evictDoctor(id);
+                doctorSearchIndex.remove(id);
+                directoryVersion.incrementAndGet();
+            });
             return 1; // Success
         } catch (Exception e) {
             return 0; // Internal Error
@@ -119,7 +277,7 @@ public class DoctorService {
         Map<String, String> response = new HashMap<>();
 
         if (doctor != null && doctor.getPassword().equals(login.getPassword())) {
-            String token = tokenService.generateToken(doctor.getEmail());
+            String token = tokenService.generateToken(doctor.getEmail(), "doctor", doctor.getId());
             response.put("token", token);
             response.put("message", "Login successful");
             return ResponseEntity.ok(response);
@@ -129,91 +287,115 @@ public class DoctorService {
         }
     }
 
-    // 7. findDoctorByName: Finds doctors by partial name match
+    // 7. filterDoctors: Filters doctors by any combination of name, specialty and time in one query
+    // Null criteria are ignored; time is "AM", "PM" or an exact slot such as "09:00-10:00"
     @Transactional(readOnly = true)
-    public Map<String, Object> findDoctorByName(String name) {
-        List<Doctor> doctors = doctorRepository.findByNameLike("%" + name + "%");
+    public Map<String, Object> filterDoctors(String name, String specialty, String time) {
+        List<Specification<Doctor>> criteria = new ArrayList<>();
+        if (name != null) {
+            if (doctorSearchIndex.isReady()) {
+                // Resolve the name substring in memory and look doctors up by primary key
+                Set<Long> ids = doctorSearchIndex.matchName(name);
+                if (ids.isEmpty()) {
+                    return new HashMap<>(Map.of("doctors", Collections.emptyList()));
+                }
+                criteria.add(DoctorSpecifications.idIn(ids));
+            } else {
+                criteria.add(DoctorSpecifications.nameContains(name));
+            }
+        }
+        if (specialty != null) {
+            criteria.add(DoctorSpecifications.specialtyEquals(specialty));
+        }
+        if (time != null) {
+            criteria.add(DoctorSpecifications.offersTime(time));
+        }
+
+        List<Doctor> doctors = doctorRepository.findAll(Specification.allOf(criteria));
         Map<String, Object> response = new HashMap<>();
         response.put("doctors", doctors);
         return response;
     }
 
-    // 8. filterDoctorsByNameSpecialtyAndTime
+    // 8. searchDoctors: Typeahead search on name or specialty, best matches first
     @Transactional(readOnly = true)
-    public Map<String, Object> filterDoctorsByNameSpecialtyAndTime(String name, String specialty, String amOrPm) {
-        List<Doctor> doctors = doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, specialty);
-        List<Doctor> filteredDoctors = filterDoctorByTime(doctors, amOrPm);
+    public List<Doctor> searchDoctors(String query, int limit) {
+        if (!doctorSearchIndex.isReady()) {
+            // Index still cold: let the database do the substring scan
+            return doctorRepository.findBy(DoctorSpecifications.nameOrSpecialtyContains(query),
+                    q -> q.sortBy(Sort.by("name")).limit(limit).all());
+        }
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("doctors", filteredDoctors);
-        return response;
+        List<Long> ids = doctorSearchIndex.search(query, limit);
+        Map<Long, Doctor> byId = new HashMap<>();
+        for (Doctor doctor : doctorRepository.findAllById(ids)) {
+            byId.put(doctor.getId(), doctor);
+        }
+        List<Doctor> doctors = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Doctor doctor = byId.get(id);
+            if (doctor != null) {
+                doctors.add(doctor);
+            }
+        }
+        return doctors;
     }
 
-    // 9. filterDoctorByNameAndTime
-    @Transactional(readOnly = true)
-    public Map<String, Object> filterDoctorByNameAndTime(String name, String amOrPm) {
-        // Assuming findByNameLike or similar for name filtering, then filter by time
-        List<Doctor> doctors = doctorRepository.findByNameLike("%" + name + "%");
-        List<Doctor> filteredDoctors = filterDoctorByTime(doctors, amOrPm);
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("doctors", filteredDoctors);
-        return response;
+    // 9. getDirectoryETag: Strong validator for every doctor directory response, changed by any doctor write
+    public String getDirectoryETag() {
+        return "\"" + Long.toString(directoryEpoch, 36) + "-" + directoryVersion.get() + "\"";
     }
 
-    // 10. filterDoctorByNameAndSpecialty
-    @Transactional(readOnly = true)
-    public Map<String, Object> filterDoctorByNameAndSpecialty(String name, String specialty) {
-        List<Doctor> doctors = doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, specialty);
-        Map<String, Object> response = new HashMap<>();
-        response.put("doctors", doctors);
-        return response;
+    // Helper: the columns of a doctor that the earliest-slot search needs
+    private record DoctorSchedule(Long id, String name, String specialty, List<String> availableTimes) {
     }
 
-    // 11. filterDoctorByTimeAndSpecialty
-    @Transactional(readOnly = true)
-    public Map<String, Object> filterDoctorByTimeAndSpecialty(String specialty, String amOrPm) {
-        List<Doctor> doctors = doctorRepository.findBySpecialtyIgnoreCase(specialty);
-        List<Doctor> filteredDoctors = filterDoctorByTime(doctors, amOrPm);
+    // Helper: walks one doctor's free slots day by day in chronological order
+    private static final class FreeSlotCursor {
+        private final DoctorSchedule doctor;
+        private final LocalDate from;
+        private final DailySlots[] days;
+        private int day;
+        private int position;
+        private LocalDateTime current;
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("doctors", filteredDoctors);
-        return response;
-    }
-
-    // 12. filterDoctorBySpecialty
-    @Transactional(readOnly = true)
-    public Map<String, Object> filterDoctorBySpecialty(String specialty) {
-        List<Doctor> doctors = doctorRepository.findBySpecialtyIgnoreCase(specialty);
-        Map<String, Object> response = new HashMap<>();
-        response.put("doctors", doctors);
-        return response;
-    }
+        FreeSlotCursor(DoctorSchedule doctor, LocalDate from, DailySlots[] days) {
+            this.doctor = doctor;
+            this.from = from;
+            this.days = days;
+        }
 
-    // 13. filterDoctorsByTime
-    @Transactional(readOnly = true)
-    public Map<String, Object> filterDoctorsByTime(String amOrPm) {
-        List<Doctor> doctors = doctorRepository.findAll();
-        List<Doctor> filteredDoctors = filterDoctorByTime(doctors, amOrPm); //
+        LocalDateTime current() {
+            return current;
+        }
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("doctors", filteredDoctors);
-        return response;
-    }
+        // Moves to the first free slot at or after the current position that is not before 'notBefore'
+        boolean seek(LocalDateTime notBefore) {
+            while (day < days.length) {
+                position = days[day].nextFree(position);
+                if (position < 0) {
+                    day++;
+                    position = 0;
+                    continue;
+                }
+                int minute = days[day].getSchedule().startMinute(position);
+                current = from.plusDays(day).atTime(minute / 60, minute % 60);
+                if (!current.isBefore(notBefore)) {
+                    return true;
+                }
+                position++;
+            }
+            return false;
+        }
 
-    // Helper: filterDoctorByTime (Private method)
-    private List<Doctor> filterDoctorByTime(List<Doctor> doctors, String amOrPm) {
-        // Check for Java null or the literal "null" string passed from the controller
-        if (amOrPm == null || "null".equalsIgnoreCase(amOrPm)) {
-            return doctors;
+        boolean advance(LocalDateTime notBefore) {
+            position++;
+            return seek(notBefore);
         }
 
-        return doctors.stream()
-            .filter(doctor -> {
-                List<String> times = doctor.getAvailableTimes();
-                // Matches the slot string (e.g., "09:00-10:00") exactly
-                return times != null && times.contains(amOrPm);
-            })
-            .collect(Collectors.toList());
+        AvailableSlotDTO toDTO() {
+            String slot = days[day].getSchedule().label(position);
+            return new AvailableSlotDTO(doctor.id(), doctor.name(), doctor.specialty(), slot, current);
+        }
     }
 }
@@ -0,0 +1,123 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.auth.AuthenticatedUser;
+import com.project.back_end.models.Patient;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.repo.PrescriptionRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Builds a patient's full record: appointments from MySQL and prescriptions from MongoDB,
+ * joined in memory by appointment ID. The patient lookup runs alongside the appointment query,
+ * and the prescriptions for those appointments are fetched in one $in query as soon as they
+ * arrive, so the record costs two round trips rather than one per appointment.
+ */
+@Service
+public class PatientRecordService {
+
+    private final AppointmentRepository appointmentRepository;
+    private final PatientRepository patientRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    private final Executor recordExecutor;
+    private final long timeoutMillis;
+
+    public PatientRecordService(AppointmentRepository appointmentRepository,
+                                PatientRepository patientRepository,
+                                PrescriptionRepository prescriptionRepository,
+                                @Qualifier("patientRecordExecutor") Executor recordExecutor,
+                                @Value("${patient-record.timeout-ms:5000}") long timeoutMillis) {
+        this.appointmentRepository = appointmentRepository;
+        this.patientRepository = patientRepository;
+        this.prescriptionRepository = prescriptionRepository;
+        this.recordExecutor = recordExecutor;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    // 1. getPatientRecord: Patient details and appointments, each with its prescriptions
+    // Patients may view their own record; doctors only those of patients they have an appointment with
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getPatientRecord(Long patientId, AuthenticatedUser caller) {
+        boolean allowed = caller.isPatient()
+                ? caller.getId().equals(patientId)
+                : caller.isDoctor() && appointmentRepository.existsByDoctorIdAndPatientId(caller.getId(), patientId);
+        if (!allowed) {
+            return CompletableFuture.completedFuture(message("Unauthorized access", HttpStatus.UNAUTHORIZED));
+        }
+
+        CompletableFuture<List<AppointmentDTO>> submitted = null;
+        CompletableFuture<Patient> patient;
+        try {
+            submitted = CompletableFuture.supplyAsync(() -> appointmentRepository.findDtosByPatientId(patientId), recordExecutor);
+            patient = CompletableFuture.supplyAsync(() -> patientRepository.findById(patientId).orElse(null), recordExecutor);
+        } catch (RejectedExecutionException e) {
+            // A cancelled future skips its supplier, so a queued appointment query never reaches MySQL
+            if (submitted != null) {
+                submitted.cancel(false);
+            }
+            return CompletableFuture.completedFuture(message("Too many record requests, try again shortly", HttpStatus.SERVICE_UNAVAILABLE));
+        }
+        CompletableFuture<List<AppointmentDTO>> appointments = submitted;
+
+        // Keyed by the appointments just read, so renames and namesakes cannot change the result;
+        // the reactive driver needs no executor thread while it waits
+        CompletableFuture<List<Prescription>> prescriptions = appointments.thenCompose(list -> list.isEmpty()
+                ? CompletableFuture.completedFuture(Collections.<Prescription>emptyList())
+                : prescriptionRepository.findByAppointmentIdIn(list.stream().map(AppointmentDTO::getId).toList()).collectList().toFuture());
+
+        return CompletableFuture.allOf(appointments, patient, prescriptions)
+                .thenApply(done -> {
+                    if (patient.join() == null) {
+                        return message("Patient not found", HttpStatus.NOT_FOUND);
+                    }
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("patient", patient.join());
+                    response.put("appointments", join(appointments.join(), prescriptions.join()));
+                    return new ResponseEntity<>(response, HttpStatus.OK);
+                })
+                .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> e instanceof TimeoutException
+                        ? message("Patient record timed out", HttpStatus.GATEWAY_TIMEOUT)
+                        : message("Error retrieving patient record", HttpStatus.INTERNAL_SERVER_ERROR));
+    }
+
+    // Helper: attaches prescriptions to their appointments
+    private static List<Map<String, Object>> join(List<AppointmentDTO> appointments, List<Prescription> prescriptions) {
+        Map<Long, List<Prescription>> byAppointment = new HashMap<>();
+        for (Prescription prescription : prescriptions) {
+            byAppointment.computeIfAbsent(prescription.getAppointmentId(), id -> new ArrayList<>()).add(prescription);
+        }
+
+        List<Map<String, Object>> entries = new ArrayList<>(appointments.size());
+        for (AppointmentDTO appointment : appointments) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("appointment", appointment);
+            entry.put("prescriptions", byAppointment.getOrDefault(appointment.getId(), Collections.emptyList()));
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private static ResponseEntity<Map<String, Object>> message(String message, HttpStatus status) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", message);
+        return new ResponseEntity<>(response, status);
+    }
+}
@@ -1,7 +1,7 @@
 package com.project.back_end.services;
 
 import com.project.back_end.DTO.AppointmentDTO;
-import com.project.back_end.models.Appointment;
+import com.project.back_end.auth.AuthenticatedUser;
 import com.project.back_end.models.Patient;
 import com.project.back_end.repo.AppointmentRepository;
 import com.project.back_end.repo.PatientRepository;
@@ -9,7 +9,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,12 +17,10 @@ import java.util.Map;
 public class PatientService {
     private final PatientRepository patientRepository;
     private final AppointmentRepository appointmentRepository;
-    private final TokenService tokenService;
 
-    public PatientService(PatientRepository patientRepository, AppointmentRepository appointmentRepository, TokenService tokenService) {
+    public PatientService(PatientRepository patientRepository, AppointmentRepository appointmentRepository) {
         this.patientRepository = patientRepository;
         this.appointmentRepository = appointmentRepository;
-        this.tokenService = tokenService;
     }
 
     // 1. createPatient: Saves a new patient to the database
@@ -37,34 +34,12 @@ public class PatientService {
     }
 
     // 2. getPatientAppointment: Retrieves a list of appointments for a specific patient
-    public ResponseEntity<Map<String, Object>> getPatientAppointment(Long id, String token) {
+    public ResponseEntity<Map<String, Object>> getPatientAppointment(Long id, AuthenticatedUser caller) {
         Map<String, Object> response = new HashMap<>();
-        String email = tokenService.extractIdentifier(token); // Extract email from token
-        Patient patient = patientRepository.findByEmail(email);
 
-        // Check if the provided patient ID matches the one decoded from the token
-        if (patient != null && patient.getId().equals(id)) {
-            List<Appointment> appointments = appointmentRepository.findByPatientId(id);
-            List<AppointmentDTO> appointmentDTOs = new ArrayList<>();
-
-            // Map Appointment entities to DTOs
-            for (Appointment appointment : appointments) {
-                appointmentDTOs.add(new AppointmentDTO(
-                        appointment.getId(),
-                        appointment.getDoctor().getId(),
-                        appointment.getDoctor().getName(),
-                        appointment.getPatient().getId(),
-                        appointment.getPatient().getName(),
-                        appointment.getPatient().getEmail(),
-                        appointment.getPatient().getPhone(),
-                        appointment.getPatient().getAddress(),
-                        appointment.getAppointmentTime(),
-                        appointment.getStatus()
-                ));
-            }
-
-            response.put("appointments", appointmentDTOs);
-            return new ResponseEntity<>(response, HttpStatus.OK);
+        // Only the patient themselves; the token's principal must be this patient
+        if (caller.isPatient() && caller.getId().equals(id)) {
+            return appointmentsResponse(appointmentRepository.findDtosByPatientId(id));
         } else {
             response.put("message", "Unauthorized access");
             return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED); // Returns Unauthorized status on mismatch
@@ -73,91 +48,27 @@ public class PatientService {
 
     // 3. filterByCondition: Filters appointments by condition (past or future)
     public ResponseEntity<Map<String, Object>> filterByCondition(String condition, Long id) {
-        Map<String, Object> response = new HashMap<>();
         // Status 1 for past, 0 for future
         int status = "past".equalsIgnoreCase(condition) ? 1 : 0;
-
-        List<Appointment> appointments = appointmentRepository.findByPatient_IdAndStatusOrderByAppointmentTimeAsc(id, status);
-        List<AppointmentDTO> appointmentDTOs = new ArrayList<AppointmentDTO>();
-
-        for (Appointment appointment : appointments) {
-            appointmentDTOs.add(new AppointmentDTO(
-                    appointment.getId(),
-                    appointment.getDoctor().getId(),
-                    appointment.getDoctor().getName(),
-                    appointment.getPatient().getId(),
-                    appointment.getPatient().getName(),
-                    appointment.getPatient().getEmail(),
-                    appointment.getPatient().getPhone(),
-                    appointment.getPatient().getAddress(),
-                    appointment.getAppointmentTime(),
-                    appointment.getStatus()
-            ));
-        }
-
-        response.put("appointments", appointmentDTOs);
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return appointmentsResponse(appointmentRepository.findDtosByPatientIdAndStatus(id, status));
     }
 
     // 4. filterByDoctor: Filters the patient's appointments by doctor's name
     public ResponseEntity<Map<String, Object>> filterByDoctor(String name, Long patientId) {
-        Map<String, Object> response = new HashMap<>();
-
-        List<Appointment> appointments = appointmentRepository.filterByDoctorNameAndPatientId(name, patientId);
-        List<AppointmentDTO> appointmentDTOs = new ArrayList<>();
-
-        for (Appointment appointment : appointments) {
-            appointmentDTOs.add(new AppointmentDTO(
-                    appointment.getId(),
-                    appointment.getDoctor().getId(),
-                    appointment.getDoctor().getName(),
-                    appointment.getPatient().getId(),
-                    appointment.getPatient().getName(),
-                    appointment.getPatient().getEmail(),
-                    appointment.getPatient().getPhone(),
-                    appointment.getPatient().getAddress(),
-                    appointment.getAppointmentTime(),
-                    appointment.getStatus()
-            ));
-        }
-
-        response.put("appointments", appointmentDTOs);
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return appointmentsResponse(appointmentRepository.filterDtosByDoctorNameAndPatientId(name, patientId));
     }
 
     // 5. filterByDoctorAndCondition: Filters by doctor's name and appointment condition
     public ResponseEntity<Map<String, Object>> filterByDoctorAndCondition(String condition, String name, long patientId) {
-        Map<String, Object> response = new HashMap<>();
         // Status 1 for past, 0 for future
         int status = "past".equalsIgnoreCase(condition) ? 1 : 0;
-
-        List<Appointment> appointments = appointmentRepository.filterByDoctorNameAndPatientIdAndStatus(name, patientId, status);
-        List<AppointmentDTO> appointmentDTOs = new ArrayList<>();
-
-        for (Appointment appointment : appointments) {
-            appointmentDTOs.add(new AppointmentDTO(
-                    appointment.getId(),
-                    appointment.getDoctor().getId(),
-                    appointment.getDoctor().getName(),
-                    appointment.getPatient().getId(),
-                    appointment.getPatient().getName(),
-                    appointment.getPatient().getEmail(),
-                    appointment.getPatient().getPhone(),
-                    appointment.getPatient().getAddress(),
-                    appointment.getAppointmentTime(),
-                    appointment.getStatus()
-            ));
-        }
-
-        response.put("appointments", appointmentDTOs);
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return appointmentsResponse(appointmentRepository.filterDtosByDoctorNameAndPatientIdAndStatus(name, patientId, status));
     }
 
     // 6. getPatientDetails: Fetches the patient's details based on the token
-    public ResponseEntity<Map<String, Object>> getPatientDetails(String token) {
+    public ResponseEntity<Map<String, Object>> getPatientDetails(AuthenticatedUser caller) {
         Map<String, Object> response = new HashMap<>();
-        String email = tokenService.extractIdentifier(token); // Extract email from token
-        Patient patient = patientRepository.findByEmail(email);
+        Patient patient = caller.getPatient(); // Loaded once from the id carried by the resolved principal
 
         if (patient != null) {
             response.put("patient", patient);
@@ -167,4 +78,11 @@ public class PatientService {
             return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
         }
     }
+
+    // Helper: wraps an AppointmentDTO projection in the response shape shared by all listings
+    private ResponseEntity<Map<String, Object>> appointmentsResponse(List<AppointmentDTO> appointments) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("appointments", appointments);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
 }
@@ -1,47 +1,158 @@
 package com.project.back_end.services;
 
+import com.mongodb.bulk.BulkWriteError;
 import com.project.back_end.models.Prescription;
 import com.project.back_end.repo.PrescriptionRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class PrescriptionService {
 
     private final PrescriptionRepository prescriptionRepository;
+    private final MongoTemplate mongoTemplate;
+    private final Validator validator;
 
-    public PrescriptionService(PrescriptionRepository prescriptionRepository) {
+    public PrescriptionService(PrescriptionRepository prescriptionRepository, MongoTemplate mongoTemplate, Validator validator) {
         this.prescriptionRepository = prescriptionRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.validator = validator;
     }
 
     // 1. savePrescription: Saves a prescription to the database
-    public ResponseEntity<Map<String, String>> savePrescription(Prescription prescription) {
-        Map<String, String> response = new HashMap<>();
-        try {
-            prescriptionRepository.save(prescription);
-            response.put("message", "Prescription saved");
-            return new ResponseEntity<>(response, HttpStatus.CREATED);
-        } catch (Exception e) {
-            response.put("message", "Error saving prescription");
-            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+    public Mono<ResponseEntity<Map<String, String>>> savePrescription(Prescription prescription) {
+        return prescriptionRepository.save(prescription)
+                .map(saved -> new ResponseEntity<>(Map.of("message", "Prescription saved"), HttpStatus.CREATED))
+                .onErrorResume(e -> Mono.just(new ResponseEntity<>(Map.of("message", "Error saving prescription"), HttpStatus.INTERNAL_SERVER_ERROR)));
     }
 
     // 2. getPrescription: Retrieves the prescription associated with a specific appointment ID
-    public ResponseEntity<Map<String, Object>> getPrescription(Long appointmentId) {
+    public Mono<ResponseEntity<Map<String, Object>>> getPrescription(Long appointmentId) {
+        return prescriptionRepository.findByAppointmentId(appointmentId)
+                .collectList()
+                .map(prescriptions -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("prescription", prescriptions);
+                    return new ResponseEntity<>(response, HttpStatus.OK);
+                })
+                .onErrorResume(e -> Mono.just(errorResponse("Error retrieving prescription")));
+    }
+
+    // 3. getPrescriptions: Retrieves prescriptions for many appointments in one query, grouped by appointment ID
+    // Every requested ID is present in the result, with an empty list when it has no prescription
+    public Mono<ResponseEntity<Map<String, Object>>> getPrescriptions(Collection<Long> appointmentIds) {
+        Map<Long, List<Prescription>> grouped = new LinkedHashMap<>();
+        for (Long appointmentId : appointmentIds) {
+            grouped.put(appointmentId, new ArrayList<>());
+        }
+        return prescriptionRepository.findByAppointmentIdIn(grouped.keySet())
+                .collect(() -> grouped, (groups, prescription) -> groups.get(prescription.getAppointmentId()).add(prescription))
+                .map(groups -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("prescriptions", groups);
+                    return new ResponseEntity<>(response, HttpStatus.OK);
+                })
+                .onErrorResume(e -> Mono.just(errorResponse("Error retrieving prescriptions")));
+    }
+
+    // 4. savePrescriptions: Validates a batch and inserts the valid documents with one unordered bulk write
+    // Ingestion path for migrations; stays on the blocking template, which reports per-document bulk errors
+    // Returns one result per input, in input order: "created" with the stored id, "invalid" or "failed" with a message
+    public ResponseEntity<Map<String, Object>> savePrescriptions(List<Prescription> prescriptions) {
+        List<Map<String, Object>> results = new ArrayList<>(prescriptions.size());
+        List<Prescription> valid = new ArrayList<>();
+        List<Integer> validPositions = new ArrayList<>();
+
+        for (int i = 0; i < prescriptions.size(); i++) {
+            Prescription prescription = prescriptions.get(i);
+            Set<ConstraintViolation<Prescription>> violations = prescription == null
+                    ? Set.of()
+                    : validator.validate(prescription);
+            if (prescription == null || !violations.isEmpty()) {
+                results.add(itemResult(i, "invalid", null, prescription == null ? "Missing prescription" : violationMessage(violations)));
+                continue;
+            }
+            // Missing ids are assigned up front so they can be reported without reading the documents back;
+            // ids supplied by the caller are kept, so a replayed migration batch hits duplicate keys
+            if (prescription.getId() == null || prescription.getId().isBlank()) {
+                prescription.setId(new ObjectId().toHexString());
+            }
+            results.add(itemResult(i, "created", prescription.getId(), null));
+            valid.add(prescription);
+            validPositions.add(i);
+        }
+
+        int failed = 0;
+        if (!valid.isEmpty()) {
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Prescription.class)
+                        .insert(valid)
+                        .execute();
+            } catch (BulkOperationException e) {
+                // Unordered: every other document was still written; errors carry their index in the bulk
+                for (BulkWriteError error : e.getErrors()) {
+                    int position = validPositions.get(error.getIndex());
+                    results.set(position, itemResult(position, "failed", null, error.getMessage()));
+                    failed++;
+                }
+            } catch (Exception e) {
+                for (int position : validPositions) {
+                    results.set(position, itemResult(position, "failed", null, "Error saving prescription"));
+                }
+                failed = valid.size();
+            }
+        }
+
+        int created = valid.size() - failed;
         Map<String, Object> response = new HashMap<>();
-        try {
-            List<Prescription> prescriptions = prescriptionRepository.findByAppointmentId(appointmentId);
-            response.put("prescription", prescriptions);
-            return new ResponseEntity<>(response, HttpStatus.OK);
-        } catch (Exception e) {
-            response.put("message", "Error retrieving prescription");
-            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        response.put("created", created);
+        response.put("failed", prescriptions.size() - created);
+        response.put("results", results);
+        // 201 only when every document was stored; otherwise the caller must read the per-item results
+        return new ResponseEntity<>(response, created == prescriptions.size() ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS);
+    }
+
+    private static ResponseEntity<Map<String, Object>> errorResponse(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", message);
+        return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    // Helper: one entry of the bulk result list
+    private static Map<String, Object> itemResult(int index, String status, String id, String message) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("index", index);
+        result.put("status", status);
+        if (id != null) {
+            result.put("id", id);
+        }
+        if (message != null) {
+            result.put("message", message);
         }
+        return result;
+    }
+
+    private static String violationMessage(Set<ConstraintViolation<Prescription>> violations) {
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
     }
-}
\ No newline at end of file
+}
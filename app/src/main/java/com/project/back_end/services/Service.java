@@ -5,31 +5,31 @@ import com.project.back_end.models.Appointment;
 import com.project.back_end.DTO.Login;
 import com.project.back_end.models.Patient;
 import com.project.back_end.repo.AdminRepository;
-import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.repo.PatientRepository;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @org.springframework.stereotype.Service
 public class Service {
     private final TokenService tokenService;
     private final AdminRepository adminRepository;
-    private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
     private final DoctorService doctorService;
     private final PatientService patientService;
+    private final AvailabilityIndex availabilityIndex;
+    private final AppointmentStatusJob appointmentStatusJob;
 
-    public Service(TokenService tokenService, AdminRepository adminRepository, DoctorRepository doctorRepository, PatientRepository patientRepository, DoctorService doctorService, PatientService patientService) {
+    public Service(TokenService tokenService, AdminRepository adminRepository, PatientRepository patientRepository, DoctorService doctorService, PatientService patientService, AvailabilityIndex availabilityIndex, AppointmentStatusJob appointmentStatusJob) {
         this.tokenService = tokenService;
         this.adminRepository = adminRepository;
-        this.doctorRepository = doctorRepository;
         this.patientRepository = patientRepository;
         this.doctorService = doctorService;
         this.patientService = patientService;
+        this.availabilityIndex = availabilityIndex;
+        this.appointmentStatusJob = appointmentStatusJob;
     }
 
     // 1. validateToken: Checks if the token is valid for a specific user type
@@ -48,7 +48,7 @@ public class Service {
         Admin admin = adminRepository.findByUsername(receivedAdmin.getUsername());
 
         if (admin != null && admin.getPassword().equals(receivedAdmin.getPassword())) {
-            String token = tokenService.generateToken(admin.getUsername());
+            String token = tokenService.generateToken(admin.getUsername(), "admin", admin.getId());
             response.put("token", token);
             return new ResponseEntity<>(response, HttpStatus.OK);
         } else {
@@ -59,42 +59,22 @@ public class Service {
 
     // 3. filterDoctor: Filters doctors based on name, specialty, and time criteria
     public Map<String, Object> filterDoctor(String name, String specialty, String time) {
-        if ((name != null && !name.isEmpty() && !name.equals("null")) && (specialty != null && !specialty.isEmpty() && !specialty.equals("null")) && (time != null && !time.isEmpty() && !time.equals("null"))) {
-            return doctorService.filterDoctorsByNameSpecialtyAndTime(name, specialty, time);
-        } else if ((name != null && !name.isEmpty() && !name.equals("null")) && (time != null && !time.isEmpty() && !time.equals("null"))) {
-            return doctorService.filterDoctorByNameAndTime(name, time);
-        } else if ((name != null && !name.isEmpty() && !name.equals("null")) && (specialty != null && !specialty.isEmpty() && !specialty.equals("null"))) {
-            return doctorService.filterDoctorByNameAndSpecialty(name, specialty);
-        } else if ((specialty != null && !specialty.isEmpty() && !specialty.equals("null")) && (time != null && !time.isEmpty() && !time.equals("null"))) {
-            return doctorService.filterDoctorByTimeAndSpecialty(specialty, time);
-        } else if (name != null && !name.isEmpty() && !name.equals("null")) {
-            return doctorService.findDoctorByName(name);
-        } else if (specialty != null && !specialty.isEmpty() && !specialty.equals("null")) {
-            return doctorService.filterDoctorBySpecialty(specialty);
-        } else {
-            return doctorService.filterDoctorsByTime(time);
-        }
+        // Blank values and the literal "null" sent by the frontend mean "no filter"
+        return doctorService.filterDoctors(criterion(name), criterion(specialty), criterion(time));
     }
 
     // 4. validateAppointment: Checks if an appointment is available in a doctor's schedule
     public int validateAppointment(Appointment appointment) {
-        if (!doctorRepository.findById(appointment.getDoctor().getId()).isPresent()) {
-            return -1; // Doctor not found
-        }
-
-        List<String> availableSlots = doctorService.getDoctorAvailability(
+        DailySlots slots = doctorService.getDailySlots(
                 appointment.getDoctor().getId(),
                 appointment.getAppointmentTime().toLocalDate()
         );
-
-        // Extracting time to match against doctor availability slots
-        String requestedSlot = appointment.getAppointmentTime().toLocalTime().toString();
-        for (String slot : availableSlots) {
-            if (slot.startsWith(requestedSlot)) {
-                return 1; // Success
-            }
+        if (slots == null) {
+            return -1; // Doctor not found
         }
-        return 0; // Failure (slot taken or unavailable)
+
+        // The requested time must start one of the doctor's slots and not be booked yet
+        return slots.isFree(appointment.getAppointmentTime().toLocalTime()) ? 1 : 0;
     }
 
     // 5. validatePatient: Ensures no duplicate records exist by email or phone
@@ -109,7 +89,7 @@ public class Service {
         Patient patient = patientRepository.findByEmail(login.getEmail());
 
         if (patient != null && patient.getPassword().equals(login.getPassword())) {
-            String token = tokenService.generateToken(patient.getEmail());
+            String token = tokenService.generateToken(patient.getEmail(), "patient", patient.getId());
             response.put("token", token);
             return new ResponseEntity<>(response, HttpStatus.OK);
         } else {
@@ -119,16 +99,28 @@ public class Service {
     }
 
     // 7. filterPatient: Routes appointment filtering requests to PatientService
-    public ResponseEntity<Map<String, Object>> filterPatient(String condition, String name, String token) {
-        String email = tokenService.extractIdentifier(token);
-        Patient patient = patientRepository.findByEmail(email);
-
+    public ResponseEntity<Map<String, Object>> filterPatient(String condition, String name, Long patientId) {
         if (condition != null && name != null) {
-            return patientService.filterByDoctorAndCondition(condition, name, patient.getId());
+            return patientService.filterByDoctorAndCondition(condition, name, patientId);
         } else if (condition != null) {
-            return patientService.filterByCondition(condition, patient.getId());
+            return patientService.filterByCondition(condition, patientId);
         } else {
-            return patientService.filterByDoctor(name, patient.getId());
+            return patientService.filterByDoctor(name, patientId);
         }
     }
-}
\ No newline at end of file
+
+    // 8. getStats: Collects cache counters and background job metrics for the admin stats endpoint
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("verifiedTokenCache", tokenService.getVerifiedTokenCacheStats());
+        stats.put("principalCache", tokenService.getPrincipalCacheStats());
+        stats.put("availabilityIndex", availabilityIndex.stats());
+        stats.put("appointmentStatusJob", appointmentStatusJob.stats());
+        return stats;
+    }
+
+    // Helper: normalizes an optional filter value from a path variable
+    private static String criterion(String value) {
+        return value == null || value.isEmpty() || value.equals("null") ? null : value;
+    }
+}
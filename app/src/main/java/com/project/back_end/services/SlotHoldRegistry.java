@@ -0,0 +1,138 @@
+package com.project.back_end.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived claims on (doctorId, appointment time) slots, held in memory.
+ * A patient can hold a slot while confirming a booking, and every booking
+ * briefly claims its slot before inserting, so concurrent requests for the same
+ * slot are settled here and the losers are answered without touching MySQL.
+ *
+ * Claims go through ConcurrentHashMap.compute, which only locks the bin of the
+ * slot being claimed, so requests for different slots do not contend.
+ *
+ * A patient has at most one hold: holding a new slot gives up the previous one,
+ * so nobody can block a doctor's schedule by holding and renewing many slots.
+ */
+@Component
+public class SlotHoldRegistry {
+
+    // Expired holds are swept once the map grows beyond this many entries
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final Map<SlotKey, Hold> holds = new ConcurrentHashMap<>();
+    // The slot each patient last held; may point at a hold that has since expired or been booked
+    private final Map<Long, SlotKey> heldByPatient = new ConcurrentHashMap<>();
+
+    @Value("${booking.hold.max-ttl-seconds:600}")
+    private long maxTtlSeconds;
+
+    /**
+     * Holds the slot for the patient, or extends their existing hold, and releases any hold they
+     * have on another slot. Returns the time the hold expires, or null if another patient holds
+     * the slot (the patient's previous hold is then kept).
+     */
+    public Instant tryHold(Long doctorId, LocalDateTime time, Long patientId, long ttlSeconds) {
+        if (holds.size() > PURGE_THRESHOLD || heldByPatient.size() > PURGE_THRESHOLD) {
+            purgeExpired();
+        }
+        Instant now = Instant.now();
+        Instant expiresAt = now.plusSeconds(Math.min(Math.max(ttlSeconds, 1), maxTtlSeconds));
+        SlotKey slot = new SlotKey(doctorId, time);
+        Hold hold = holds.compute(slot, (key, existing) ->
+                existing == null || existing.isExpired(now) || existing.patientId().equals(patientId)
+                        ? new Hold(patientId, expiresAt)
+                        : existing);
+        if (!hold.patientId().equals(patientId)) {
+            return null;
+        }
+
+        // Concurrent holds by one patient each release the slot recorded before them, so at most
+        // the last one survives
+        SlotKey previous = heldByPatient.put(patientId, slot);
+        if (previous != null && !previous.equals(slot)) {
+            releaseHold(previous, patientId);
+        }
+        return expiresAt;
+    }
+
+    /**
+     * Claims the slot for a booking in progress. Unlike tryHold, the patient's own hold on the
+     * slot is remembered rather than lost, so {@link #finishClaim} can give it back if the
+     * booking fails. Returns null if another patient holds the slot.
+     */
+    Claim claim(Long doctorId, LocalDateTime time, Long patientId, long ttlSeconds) {
+        Instant now = Instant.now();
+        Hold claimHold = new Hold(patientId, now.plusSeconds(Math.max(ttlSeconds, 1)));
+        SlotKey slot = new SlotKey(doctorId, time);
+        Hold[] previous = new Hold[1];
+        Hold hold = holds.compute(slot, (key, existing) -> {
+            if (existing == null || existing.isExpired(now)) {
+                return claimHold;
+            }
+            if (existing.patientId().equals(patientId)) {
+                previous[0] = existing;
+                return claimHold;
+            }
+            return existing;
+        });
+        return hold == claimHold ? new Claim(slot, claimHold, previous[0]) : null;
+    }
+
+    // Ends a claim: a successful booking drops it, a failed one restores the patient's earlier hold
+    void finishClaim(Claim claim, boolean booked) {
+        holds.computeIfPresent(claim.slot(), (key, existing) -> {
+            if (existing != claim.hold()) {
+                return existing; // Replaced meanwhile, e.g. the patient held the slot again
+            }
+            return booked ? null : claim.previous();
+        });
+        if (booked) {
+            heldByPatient.remove(claim.hold().patientId(), claim.slot());
+        }
+    }
+
+    // Releases the patient's hold on the slot; holds of other patients are left alone
+    public void release(Long doctorId, LocalDateTime time, Long patientId) {
+        SlotKey slot = new SlotKey(doctorId, time);
+        releaseHold(slot, patientId);
+        heldByPatient.remove(patientId, slot);
+    }
+
+    public int size() {
+        return holds.size();
+    }
+
+    private void releaseHold(SlotKey slot, Long patientId) {
+        holds.computeIfPresent(slot, (key, existing) ->
+                existing.patientId().equals(patientId) ? null : existing);
+    }
+
+    private void purgeExpired() {
+        Instant now = Instant.now();
+        holds.values().removeIf(hold -> hold.isExpired(now));
+        heldByPatient.entrySet().removeIf(entry -> {
+            Hold hold = holds.get(entry.getValue());
+            return hold == null || !hold.patientId().equals(entry.getKey());
+        });
+    }
+
+    private record SlotKey(Long doctorId, LocalDateTime time) {
+    }
+
+    // A booking's claim on a slot and the hold it displaced, if any
+    record Claim(SlotKey slot, Hold hold, Hold previous) {
+    }
+
+    private record Hold(Long patientId, Instant expiresAt) {
+        boolean isExpired(Instant now) {
+            return !expiresAt.isAfter(now);
+        }
+    }
+}
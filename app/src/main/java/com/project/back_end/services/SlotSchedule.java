@@ -0,0 +1,100 @@
+package com.project.back_end.services;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A doctor's daily schedule parsed once from the "09:00-10:00" slot strings.
+ * Slots are indexed by the minute of the day they start at, so checking whether
+ * a time is a bookable slot is a single bit lookup.
+ */
+public final class SlotSchedule {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    // Bit m is set when a slot starts at minute m of the day
+    private final BitSet starts;
+    // Start minutes in ascending order, with the original slot string for each
+    private final int[] startMinutes;
+    private final String[] labels;
+
+    private SlotSchedule(BitSet starts, int[] startMinutes, String[] labels) {
+        this.starts = starts;
+        this.startMinutes = startMinutes;
+        this.labels = labels;
+    }
+
+    /**
+     * Parses slot strings such as "09:00-10:00". Entries whose start time cannot be
+     * parsed are skipped; duplicate start times keep the first label.
+     */
+    public static SlotSchedule of(List<String> availableTimes) {
+        BitSet starts = new BitSet(MINUTES_PER_DAY);
+        String[] byMinute = new String[MINUTES_PER_DAY];
+        if (availableTimes != null) {
+            for (String slot : availableTimes) {
+                int minute = parseStartMinute(slot);
+                if (minute >= 0 && !starts.get(minute)) {
+                    starts.set(minute);
+                    byMinute[minute] = slot;
+                }
+            }
+        }
+
+        int[] startMinutes = new int[starts.cardinality()];
+        String[] labels = new String[startMinutes.length];
+        int k = 0;
+        for (int m = starts.nextSetBit(0); m >= 0; m = starts.nextSetBit(m + 1)) {
+            startMinutes[k] = m;
+            labels[k++] = byMinute[m];
+        }
+        return new SlotSchedule(starts, startMinutes, labels);
+    }
+
+    /**
+     * Minute of the day for a time that falls exactly on a minute boundary, otherwise -1.
+     */
+    public static int minuteOf(LocalTime time) {
+        if (time.getSecond() != 0 || time.getNano() != 0) {
+            return -1;
+        }
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    public boolean offers(int minute) {
+        return minute >= 0 && starts.get(minute);
+    }
+
+    public boolean offers(LocalTime time) {
+        return offers(minuteOf(time));
+    }
+
+    public int size() {
+        return startMinutes.length;
+    }
+
+    // Start minute of the k-th slot of the day
+    public int startMinute(int k) {
+        return startMinutes[k];
+    }
+
+    // Original slot string of the k-th slot of the day
+    public String label(int k) {
+        return labels[k];
+    }
+
+    private static int parseStartMinute(String slot) {
+        if (slot == null) {
+            return -1;
+        }
+        int dash = slot.indexOf('-');
+        String start = (dash >= 0 ? slot.substring(0, dash) : slot).trim();
+        try {
+            return minuteOf(LocalTime.parse(start));
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+}
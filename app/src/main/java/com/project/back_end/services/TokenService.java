@@ -1,20 +1,35 @@
 package com.project.back_end.services;
 
+import com.project.back_end.auth.AuthenticatedUser;
+import com.project.back_end.cache.BoundedCache;
+import com.project.back_end.models.Admin;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
 import com.project.back_end.repo.AdminRepository;
 import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.repo.PatientRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class TokenService {
 
+    private static final long TOKEN_VALIDITY_MILLIS = 7L * 24 * 60 * 60 * 1000; // 7 days
+
     private final AdminRepository adminRepository;
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
@@ -22,66 +37,223 @@ public class TokenService {
     @Value("${jwt.secret}")
     private String secret;
 
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheMaxSize;
+
+    @Value("${jwt.principal-cache.max-size:10000}")
+    private int principalCacheMaxSize;
+
+    @Value("${jwt.principal-cache.ttl-seconds:300}")
+    private long principalCacheTtlSeconds;
+
+    // When enabled, the role and id claims of a verified token are trusted without a user lookup.
+    // Off by default: revokedPrincipals is in memory only, so a restart would forget deleted users.
+    @Value("${jwt.trust-claims:false}")
+    private boolean trustClaims;
+
+    // Built once from the secret; both are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Tokens whose signature has already been checked, keyed by a hash of the token
+    private BoundedCache<String, VerifiedToken> verifiedTokens;
+
+    // Principals known to exist, keyed by "role:identifier" and mapped to the entity id
+    private BoundedCache<String, Long> principals;
+
+    // Deleted users ("role:id") mapped to the time their last possible token expires; lost on restart
+    private final Map<String, Long> revokedPrincipals = new ConcurrentHashMap<>();
+
     public TokenService(AdminRepository adminRepository, DoctorRepository doctorRepository, PatientRepository patientRepository) {
         this.adminRepository = adminRepository;
         this.doctorRepository = doctorRepository;
         this.patientRepository = patientRepository;
     }
 
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(this.secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.verifiedTokens = new BoundedCache<>(verifiedCacheMaxSize);
+        this.principals = new BoundedCache<>(principalCacheMaxSize);
+    }
+
     /**
      * Generates a JWT token for a given user's identifier.
-     * The token includes the identifier as the subject and expires in 7 days.
+     * The token includes the identifier as the subject, the user type and entity id
+     * as claims, and expires in 7 days.
      */
-    public String generateToken(String identifier) {
+    public String generateToken(String identifier, String userType, Long id) {
         return Jwts.builder()
                 .subject(identifier)
+                .claim("role", userType.toLowerCase())
+                .claim("id", id)
                 .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + 7 * 24 * 60 * 60 * 1000)) // 7 days expiration
-                .signWith(getSigningKey())
+                .expiration(new Date(System.currentTimeMillis() + TOKEN_VALIDITY_MILLIS))
+                .signWith(signingKey)
                 .compact();
     }
 
     /**
      * Extracts the identifier (subject) from a JWT token.
+     * Tokens seen before are answered from the verified-token cache until they expire.
      */
     public String extractIdentifier(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        return verify(token).subject();
     }
 
     /**
      * Validates the JWT token for a given user type (admin, doctor, or patient).
      */
     public boolean validateToken(String token, String userType) {
+        return authenticate(token, userType) != null;
+    }
+
+    /**
+     * Verifies the token and resolves the caller for the given user type.
+     * Returns null if the token is invalid, expired, or the user does not exist.
+     */
+    public AuthenticatedUser authenticate(String token, String userType) {
         try {
-            String identifier = extractIdentifier(token);
-
-            // Check if the user exists in the database based on the provided user type
-            switch (userType.toLowerCase()) {
-                case "admin":
-                    return adminRepository.findByUsername(identifier) != null;
-                case "doctor":
-                    return doctorRepository.findByEmail(identifier) != null;
-                case "patient":
-                    return patientRepository.findByEmail(identifier) != null;
-                default:
-                    return false;
+            String role = userType.toLowerCase();
+            VerifiedToken verified = verify(token);
+            Long id;
+            if (trustClaims && verified.role() != null && verified.id() != null) {
+                // Fast path: the signed claims identify the user, only deletions need checking
+                if (!role.equals(verified.role()) || isRevoked(role, verified.id())) {
+                    return null;
+                }
+                id = verified.id();
+            } else {
+                // Tokens issued without claims, or claims not trusted: confirm the user exists
+                id = resolvePrincipalId(role, verified.subject());
+                if (id == null) {
+                    return null;
+                }
             }
+            return new AuthenticatedUser(role, verified.subject(), id, () -> loadPrincipal(role, id));
         } catch (Exception e) {
-            // Returns false if the token is invalid, expired, or user not found
-            return false;
+            // Returns null if the token is invalid, expired, or user not found
+            return null;
         }
     }
 
     /**
-     * Retrieves the signing key used for JWT token signing.
+     * Drops a cached principal so the next request re-checks it against the database.
+     * Called after a doctor or patient is updated or deleted.
+     */
+    public void evictPrincipal(String userType, Long id) {
+        String prefix = userType.toLowerCase() + ":";
+        principals.invalidateIf((key, cachedId) -> key.startsWith(prefix) && cachedId.equals(id));
+    }
+
+    /**
+     * Rejects every token of a deleted user. Entries are kept until any token issued
+     * before the deletion has expired, so the list stays short.
      */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = this.secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public void revokePrincipal(String userType, Long id) {
+        long now = System.currentTimeMillis();
+        revokedPrincipals.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedPrincipals.put(userType.toLowerCase() + ":" + id, now + TOKEN_VALIDITY_MILLIS);
+        evictPrincipal(userType, id);
+    }
+
+    /**
+     * Hit/miss counters and size of the verified-token cache.
+     */
+    public Map<String, Object> getVerifiedTokenCacheStats() {
+        return verifiedTokens.stats();
+    }
+
+    /**
+     * Hit/miss counters and size of the principal cache.
+     */
+    public Map<String, Object> getPrincipalCacheStats() {
+        return principals.stats();
+    }
+
+    private boolean isRevoked(String userType, Long id) {
+        Long expiresAt = revokedPrincipals.get(userType + ":" + id);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    // Looks up the user's id, answering from the principal cache while the entry is fresh
+    private Long resolvePrincipalId(String userType, String identifier) {
+        String key = userType + ":" + identifier;
+        Long id = principals.get(key);
+        if (id != null) {
+            return id;
+        }
+
+        // Check if the user exists in the database based on the provided user type
+        switch (userType) {
+            case "admin":
+                Admin admin = adminRepository.findByUsername(identifier);
+                id = admin != null ? admin.getId() : null;
+                break;
+            case "doctor":
+                Doctor doctor = doctorRepository.findByEmail(identifier);
+                id = doctor != null ? doctor.getId() : null;
+                break;
+            case "patient":
+                Patient patient = patientRepository.findByEmail(identifier);
+                id = patient != null ? patient.getId() : null;
+                break;
+            default:
+                return null;
+        }
+
+        // Only existing users are cached; unknown identifiers always go to the database
+        if (id != null) {
+            principals.put(key, id, System.currentTimeMillis() + principalCacheTtlSeconds * 1000);
+        }
+        return id;
+    }
+
+    // Verifies the signature once and caches the result until the token's expiration
+    private VerifiedToken verify(String token) {
+        String key = hash(token);
+        VerifiedToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+        Object id = claims.get("id");
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(),
+                claims.get("role", String.class),
+                id instanceof Number number ? number.longValue() : null,
+                expiresAt);
+        verifiedTokens.put(key, verified, expiresAt);
+        return verified;
+    }
+
+    // SHA-256 of the token, so the cache never holds usable credentials
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Loads the full entity behind a resolved principal
+    private Object loadPrincipal(String userType, Long id) {
+        switch (userType) {
+            case "admin":
+                return adminRepository.findById(id).orElse(null);
+            case "doctor":
+                return doctorRepository.findById(id).orElse(null);
+            case "patient":
+                return patientRepository.findById(id).orElse(null);
+            default:
+                return null;
+        }
+    }
+
+    private record VerifiedToken(String subject, String role, Long id, long expiresAt) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+package db.migration;
+
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optimistic locking and the one-booking-per-slot guard used by the single-insert booking path.
+ * Not part of V1: databases baselined at V1 predate both.
+ * <p>
+ * A database from before the guard may already hold double bookings, which would stop the unique
+ * constraint from applying. Those are real patient appointments, and prescriptions reference them,
+ * so the migration changes nothing and fails with the conflicting rows listed. Reschedule or cancel
+ * them, then restart the application to apply it. On MySQL, Flyway also records the failed attempt,
+ * so run {@code flyway repair} (or delete the failed version 5 row from flyway_schema_history) first.
+ */
+public class V5__appointment_booking_guards extends BaseJavaMigration {
+
+    // Enough to act on; the count of the rest is still reported
+    private static final int MAX_LISTED_SLOTS = 50;
+
+    private static final String DOUBLE_BOOKINGS =
+            "SELECT a.doctor_id, a.appointment_time, a.id FROM appointment a " +
+            "JOIN (SELECT doctor_id, appointment_time FROM appointment " +
+            "      GROUP BY doctor_id, appointment_time HAVING COUNT(*) > 1) d " +
+            "ON a.doctor_id = d.doctor_id AND a.appointment_time = d.appointment_time " +
+            "ORDER BY a.doctor_id, a.appointment_time, a.id";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            // Checked before any DDL: MySQL commits each ALTER, so a late failure would leave half a migration
+            Map<String, List<Long>> conflicts = findDoubleBookings(statement);
+            if (!conflicts.isEmpty()) {
+                throw new FlywayException(describe(conflicts));
+            }
+
+            statement.execute("ALTER TABLE appointment ADD COLUMN version BIGINT NOT NULL DEFAULT 0");
+            statement.execute("ALTER TABLE appointment ADD CONSTRAINT uk_appointment_doctor_time UNIQUE (doctor_id, appointment_time)");
+        }
+    }
+
+    // Helper: appointment IDs grouped by the (doctor, time) slot they share
+    private static Map<String, List<Long>> findDoubleBookings(Statement statement) throws SQLException {
+        Map<String, List<Long>> conflicts = new LinkedHashMap<>();
+        try (ResultSet rows = statement.executeQuery(DOUBLE_BOOKINGS)) {
+            while (rows.next()) {
+                String slot = "doctor_id=" + rows.getLong(1) + " appointment_time=" + rows.getTimestamp(2).toLocalDateTime();
+                conflicts.computeIfAbsent(slot, key -> new ArrayList<>()).add(rows.getLong(3));
+            }
+        }
+        return conflicts;
+    }
+
+    private static String describe(Map<String, List<Long>> conflicts) {
+        StringBuilder message = new StringBuilder()
+                .append(conflicts.size())
+                .append(" slot(s) are booked more than once, so uk_appointment_doctor_time cannot be added.")
+                .append(" Reschedule or cancel all but one appointment per slot, run flyway repair if this")
+                .append(" database recorded the failed attempt, then restart:");
+        conflicts.entrySet().stream().limit(MAX_LISTED_SLOTS).forEach(conflict ->
+                message.append("\n  ").append(conflict.getKey()).append(" appointment ids ").append(conflict.getValue()));
+        if (conflicts.size() > MAX_LISTED_SLOTS) {
+            message.append("\n  ... and ").append(conflicts.size() - MAX_LISTED_SLOTS).append(" more");
+        }
+        return message.toString();
+    }
+}
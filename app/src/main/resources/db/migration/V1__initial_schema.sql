@@ -0,0 +1,47 @@
+-- Schema as previously generated by Hibernate from the entity model.
+-- Databases created before migrations were introduced are baselined at this version.
+
+CREATE TABLE admin (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_admin_username UNIQUE (username)
+);
+
+CREATE TABLE doctor (
+    id        BIGINT       NOT NULL AUTO_INCREMENT,
+    name      VARCHAR(100) NOT NULL,
+    specialty VARCHAR(50)  NOT NULL,
+    email     VARCHAR(255) NOT NULL,
+    password  VARCHAR(255) NOT NULL,
+    phone     VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE doctor_available_times (
+    doctor_id       BIGINT       NOT NULL,
+    available_times VARCHAR(255),
+    CONSTRAINT fk_doctor_available_times_doctor FOREIGN KEY (doctor_id) REFERENCES doctor (id)
+);
+
+CREATE TABLE patient (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    name     VARCHAR(100) NOT NULL,
+    email    VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    phone    VARCHAR(255) NOT NULL,
+    address  VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE appointment (
+    id               BIGINT      NOT NULL AUTO_INCREMENT,
+    doctor_id        BIGINT      NOT NULL,
+    patient_id       BIGINT      NOT NULL,
+    appointment_time DATETIME(6) NOT NULL,
+    status           INT         NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_appointment_doctor FOREIGN KEY (doctor_id) REFERENCES doctor (id),
+    CONSTRAINT fk_appointment_patient FOREIGN KEY (patient_id) REFERENCES patient (id)
+);
@@ -0,0 +1,12 @@
+-- Indexes behind the per-request lookups.
+-- admin(username) is already covered by its unique constraint in V1, appointment(doctor_id, appointment_time) by the one added in V5
+-- (a Java migration, db.migration.V5__appointment_booking_guards).
+
+-- Patient dashboard listings: WHERE patient_id = ? [AND status = ?] ORDER BY appointment_time
+CREATE INDEX idx_appointment_patient_status_time ON appointment (patient_id, status, appointment_time);
+
+-- Login and token principal lookups by email, and the duplicate check at patient signup (email OR phone).
+-- Plain indexes: the old schema allowed duplicate emails and phones, and existing rows must still migrate.
+CREATE INDEX idx_doctor_email ON doctor (email);
+CREATE INDEX idx_patient_email ON patient (email);
+CREATE INDEX idx_patient_phone ON patient (phone);
@@ -0,0 +1,2 @@
+-- Background status job: WHERE status = 0 AND appointment_time >= ? AND appointment_time < ? ORDER BY appointment_time
+CREATE INDEX idx_appointment_status_time ON appointment (status, appointment_time);
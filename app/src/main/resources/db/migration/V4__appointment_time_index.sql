@@ -0,0 +1,3 @@
+-- Admin export: WHERE appointment_time >= ? AND appointment_time < ? ORDER BY appointment_time, id
+-- Lets the cursor stream rows in index order instead of sorting the whole range first.
+CREATE INDEX idx_appointment_time ON appointment (appointment_time);
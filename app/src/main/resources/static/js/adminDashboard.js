@@ -1,6 +1,7 @@
 import {openModal} from './components/modals.js';
-import {getDoctors, filterDoctors, saveDoctor} from './services/doctorServices.js';
+import {filterDoctors, saveDoctor} from './services/doctorServices.js';
 import {createDoctorCard} from './components/doctorCard.js';
+import {loadDoctorPages} from './components/doctorPager.js';
 
 document.getElementById('addDocBtn').addEventListener('click', (e) => {
     openModal('addDoctor');
@@ -19,8 +20,7 @@ function renderDoctorCards(doctors) {
 }
 
 async function loadDoctorCards() {
-    const doctors = await getDoctors();
-    renderDoctorCards(doctors);
+    await loadDoctorPages(document.getElementById('content'));
 }
 
 document.getElementById('searchBar').addEventListener('input', filterDoctorsOnChange);
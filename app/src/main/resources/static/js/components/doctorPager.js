@@ -0,0 +1,26 @@
+import {getDoctorPage} from '../services/doctorServices.js';
+import {createDoctorCard} from './doctorCard.js';
+
+// Renders the first page of doctor cards into the container and adds a "Load more" button while pages remain
+export async function loadDoctorPages(contentDiv, size = 20) {
+    contentDiv.innerHTML = '';
+    await appendPage(contentDiv, null, size);
+}
+
+async function appendPage(contentDiv, after, size) {
+    const page = await getDoctorPage(after, size);
+    for (const doctor of page.doctors) {
+        contentDiv.appendChild(createDoctorCard(doctor));
+    }
+
+    if (page.nextCursor !== null && page.nextCursor !== undefined) {
+        const moreBtn = document.createElement('button');
+        moreBtn.classList.add('dashboard-btn');
+        moreBtn.textContent = 'Load more';
+        moreBtn.addEventListener('click', async () => {
+            moreBtn.remove();
+            await appendPage(contentDiv, page.nextCursor, size);
+        });
+        contentDiv.appendChild(moreBtn);
+    }
+}
@@ -41,10 +41,10 @@ async function loadAppointments() {
             result.appointments.forEach(appointment => {
                 console.log(appointment);
                 const patient = {
-                    id: appointment.patient.id,
-                    name: appointment.patient.name,
-                    phone: appointment.patient.phone,
-                    email: appointment.patient.email
+                    id: appointment.patientId,
+                    name: appointment.patientName,
+                    phone: appointment.patientPhone,
+                    email: appointment.patientEmail
                 };
                 patientTableBody.appendChild(createPatientRow(patient, appointment.id, appointment.doctorId));
             });
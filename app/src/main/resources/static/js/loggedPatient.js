@@ -1,5 +1,5 @@
 // loggedPatient.js 
-import { getDoctors } from './services/doctorServices.js';
+import { loadDoctorPages } from './components/doctorPager.js';
 import { createDoctorCard } from './components/doctorCard.js';
 import { filterDoctors } from './services/doctorServices.js';
 import { bookAppointment } from './services/appointmentRecordService.js';
@@ -10,16 +10,7 @@ document.addEventListener("DOMContentLoaded", () => {
 });
 
 function loadDoctorCards() {
-  getDoctors()
-    .then(doctors => {
-      const contentDiv = document.getElementById("content");
-      contentDiv.innerHTML = "";
-      console.log(doctors);
-      doctors.forEach(doctor => {
-        const card = createDoctorCard(doctor);
-        contentDiv.appendChild(card);
-      });
-    })
+  loadDoctorPages(document.getElementById("content"))
     .catch(error => {
       console.error("Failed to load doctors:", error);
     });
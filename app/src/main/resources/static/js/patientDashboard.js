@@ -1,5 +1,5 @@
 // patientDashboard.js
-import { getDoctors } from './services/doctorServices.js';
+import { loadDoctorPages } from './components/doctorPager.js';
 import { openModal } from './components/modals.js';
 import { createDoctorCard } from './components/doctorCard.js';
 import { filterDoctors } from './services/doctorServices.js';//call the same function to avoid duplication coz the functionality was same
@@ -28,16 +28,7 @@ document.addEventListener("DOMContentLoaded", () => {
 })
 
 function loadDoctorCards() {
-  getDoctors()
-    .then(doctors => {
-      const contentDiv = document.getElementById("content");
-      contentDiv.innerHTML = "";
-
-      doctors.forEach(doctor => {
-        const card = createDoctorCard(doctor);
-        contentDiv.appendChild(card);
-      });
-    })
+  loadDoctorPages(document.getElementById("content"))
     .catch(error => {
       console.error("Failed to load doctors:", error);
     });
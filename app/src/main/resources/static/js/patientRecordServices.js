@@ -1,5 +1,5 @@
 // patientRecordServices.js
-import { getPatientAppointments } from "./services/patientServices.js";
+import { getPatientRecord } from "./services/patientServices.js";
 import { createPatientRecordRow } from './components/patientRecordRow.js';
 
 const tableBody = document.getElementById("patientTableBody");
@@ -15,7 +15,8 @@ async function initializePage() {
   try {
     if (!token) throw new Error("No token found");
 
-    const appointmentData = await getPatientAppointments(patientId, token, "doctor") || [];
+    const record = await getPatientRecord(patientId, token, "doctor");
+    const appointmentData = record ? record.appointments.map(entry => entry.appointment) : [];
 
     // Filter by both patientId and doctorId
     const filteredAppointments = appointmentData.filter(app =>
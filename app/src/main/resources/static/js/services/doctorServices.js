@@ -21,6 +21,29 @@ export async function getDoctors() {
     }
 }
 
+// Fetches one keyset page of doctors; pass the previous page's nextCursor as "after"
+export async function getDoctorPage(after = null, size = 20) {
+    try {
+        let url = DOCTOR_API + '/page?size=' + size;
+        if (after !== null) {
+            url += '&after=' + after;
+        }
+        const response = await fetch(url);
+        const result = await response.json();
+
+        if (!response.ok) {
+            console.error('There was an issue fetching doctors: ' + response.statusText);
+            return {doctors: [], nextCursor: null};
+        }
+
+        return result;
+
+    } catch (error) {
+        console.error('There was an issue fetching doctors:' + error);
+        return {doctors: [], nextCursor: null};
+    }
+}
+
 export async function deleteDoctor(id, token) {
     try {
         const response = await fetch(DOCTOR_API + '/' + id + '/' + token, {
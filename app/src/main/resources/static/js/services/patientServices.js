@@ -73,6 +73,22 @@ export async function getPatientAppointments(id, token, user) {
   }
 }
 
+// Full patient record in one call: details plus every appointment with its prescriptions
+export async function getPatientRecord(id, token, user) {
+  try {
+    const response = await fetch(`${PATIENT_API}/record/${id}/${user}/${token}`);
+    const data = await response.json();
+    if (response.ok) {
+      return data;
+    }
+    return null;
+  }
+  catch (error) {
+    console.error("Error fetching patient record:", error);
+    return null;
+  }
+}
+
 export async function filterAppointments(condition, name, token) {
   try {
     const response = await fetch(`${PATIENT_API}/filter/${condition}/${name}/${token}`, {
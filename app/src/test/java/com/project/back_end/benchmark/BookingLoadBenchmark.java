@@ -0,0 +1,227 @@
+package com.project.back_end.benchmark;
+
+import com.project.back_end.services.TokenService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the availability and booking endpoints with many concurrent clients against a database
+ * that answers every statement after a fixed delay. Subclasses pick the threading mode and the pool
+ * settings that go with it.
+ * <p>
+ * The database is in-memory H2 with a sleep per statement, not MySQL over a network: it shows how the
+ * request threads queue on the connection pool, not how a real server behaves under the same load.
+ * Failures and timeouts are counted rather than asserted away; the report goes to the log and to
+ * {@code target/benchmark-<mode>.txt}.
+ * <p>
+ * Each run starts with an unmeasured pass on other days so the measured one is JIT-compiled. Run
+ * the modes in separate JVMs, one {@code mvn} call each: in a shared surefire JVM the second mode
+ * also inherits the first one's warm-up and looks faster than it is.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.data.mongodb.uri=mongodb://localhost:27017/prescriptions?serverSelectionTimeoutMS=500",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.project.back_end.benchmark.BookingLoadBenchmark$SlowDatabase",
+        "appointment.status-job.enabled=false",
+        // Small enough that availability reads keep going to the database
+        "availability.index.max-size=10"
+})
+abstract class BookingLoadBenchmark {
+
+    private static final int DOCTORS = 20;
+    private static final int DAYS = 10;
+    private static final int SLOTS_PER_DAY = 8;
+    private static final int CLIENTS = 400;
+    private static final int REQUESTS = DOCTORS * DAYS * SLOTS_PER_DAY;
+    private static final LocalDate FIRST_DAY = LocalDate.now().plusDays(7);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingLoadBenchmark.class);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TokenService tokenService;
+
+    // Each subclass gets its own application context, so each gets its own database
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        String name = "benchmark_" + UUID.randomUUID().toString().replace("-", "");
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+    }
+
+    protected abstract String mode();
+
+    @Test
+    void availabilityAndBooking() throws InterruptedException, IOException {
+        seed();
+        String token = tokenService.generateToken("patient1@example.com", "patient", 1L);
+        ExecutorService clientThreads = Executors.newFixedThreadPool(2);
+        HttpClient client = HttpClient.newBuilder().executor(clientThreads).connectTimeout(Duration.ofSeconds(5)).build();
+
+        // Warm-up on the days after the measured ones, so it books none of their slots
+        run(client, i -> availability(token, i, DAYS));
+        run(client, i -> booking(token, i, DAYS));
+
+        // Every request targets its own (doctor, day, slot), so no booking conflicts with another
+        Result availability = run(client, i -> availability(token, i, 0));
+        Result booking = run(client, i -> booking(token, i, 0));
+
+        clientThreads.shutdownNow();
+
+        List<String> report = List.of(availability.report(mode() + " availability"), booking.report(mode() + " booking"));
+        report.forEach(logger::info);
+        Path file = Path.of("target", "benchmark-" + mode() + ".txt");
+        Files.createDirectories(file.getParent());
+        Files.write(file, report);
+
+        // Only a run where nothing got through is broken; partial failure is a result to report
+        assertTrue(availability.ok > 0, "No availability request succeeded");
+        assertTrue(booking.ok > 0, "No booking request succeeded");
+    }
+
+    private void seed() {
+        List<Object[]> doctors = new ArrayList<>();
+        List<Object[]> times = new ArrayList<>();
+        for (long i = 1; i <= DOCTORS; i++) {
+            doctors.add(new Object[]{i, "Doctor " + i, "cardiologist", "doctor" + i + "@example.com", "secret", "555000" + String.format("%04d", i)});
+            for (int s = 0; s < SLOTS_PER_DAY; s++) {
+                times.add(new Object[]{i, String.format("%02d:00-%02d:00", 9 + s, 10 + s)});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO doctor (id, name, specialty, email, password, phone) VALUES (?, ?, ?, ?, ?, ?)", doctors);
+        jdbcTemplate.batchUpdate("INSERT INTO doctor_available_times (doctor_id, available_times) VALUES (?, ?)", times);
+        jdbcTemplate.update("INSERT INTO patient (id, name, email, password, phone, address) VALUES (1, 'Patient 1', 'patient1@example.com', 'secret', '6660000001', 'Street 1')");
+    }
+
+    // Sends REQUESTS requests keeping CLIENTS in flight and records each latency and outcome. The client
+    // is asynchronous so it needs no thread per caller and leaves the CPU to the server under test.
+    private Result run(HttpClient client, IntFunction<HttpRequest.Builder> request) throws InterruptedException {
+        long[] latencies = new long[REQUESTS];
+        AtomicInteger ok = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger timedOut = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(CLIENTS);
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+
+        long started = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            int index = i;
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            HttpRequest built = request.apply(i).timeout(REQUEST_TIMEOUT).build();
+            client.sendAsync(built, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                latencies[index] = System.nanoTime() - sent;
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    (cause instanceof HttpTimeoutException ? timedOut : failed).incrementAndGet();
+                } else if (response.statusCode() / 100 == 2) {
+                    ok.incrementAndGet();
+                } else {
+                    failed.incrementAndGet();
+                }
+                inFlight.release();
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.MINUTES), "Requests did not complete");
+        return new Result(ok.get(), failed.get(), timedOut.get(), System.nanoTime() - started, latencies);
+    }
+
+    private HttpRequest.Builder availability(String token, int i, int dayOffset) {
+        return HttpRequest.newBuilder(url("/doctor/availability/patient/" + doctorId(i) + "/" + day(i).plusDays(dayOffset) + "/" + token)).GET();
+    }
+
+    private HttpRequest.Builder booking(String token, int i, int dayOffset) {
+        return HttpRequest.newBuilder(url("/appointments/" + token))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"doctor\":{\"id\":" + doctorId(i) + "},\"patient\":{\"id\":1},"
+                        + "\"appointmentTime\":\"" + day(i).plusDays(dayOffset) + "T" + String.format("%02d", 9 + slot(i)) + ":00:00\",\"status\":0}"));
+    }
+
+    private URI url(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static long doctorId(int i) {
+        return i % DOCTORS + 1;
+    }
+
+    private static LocalDate day(int i) {
+        return FIRST_DAY.plusDays(i / DOCTORS % DAYS);
+    }
+
+    private static int slot(int i) {
+        return i / (DOCTORS * DAYS);
+    }
+
+    private record Result(int ok, int failed, int timedOut, long elapsedNanos, long[] latencies) {
+
+        String report(String label) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            double seconds = elapsedNanos / 1e9;
+            return String.format("%-22s %5d/%d ok  %4d failed  %4d timed out  %7.1f req/s  p50 %5d ms  p99 %5d ms",
+                    label, ok, sorted.length, failed, timedOut, sorted.length / seconds,
+                    Duration.ofNanos(percentile(sorted, 50)).toMillis(), Duration.ofNanos(percentile(sorted, 99)).toMillis());
+        }
+
+        private static long percentile(long[] sorted, int p) {
+            return sorted[Math.min(sorted.length - 1, sorted.length * p / 100)];
+        }
+    }
+
+    // Holds each statement for a few milliseconds, like a database on the other side of a network
+    public static class SlowDatabase implements StatementInspector {
+
+        private static final long LATENCY_MILLIS = 10;
+
+        @Override
+        public String inspect(String sql) {
+            try {
+                Thread.sleep(LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.project.back_end.benchmark;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Baseline: requests run on Tomcat's platform worker pool. Run with
+ * {@code mvn test -Dtest=PlatformThreadsBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PlatformThreadsBenchmarkTest extends BookingLoadBenchmark {
+
+    @Override
+    protected String mode() {
+        return "platform";
+    }
+}
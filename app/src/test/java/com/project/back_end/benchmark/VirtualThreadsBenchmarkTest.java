@@ -0,0 +1,33 @@
+package com.project.back_end.benchmark;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * The same load on virtual threads: one virtual thread per request, bounded by the request
+ * concurrency limit. Needs Java 21: {@code mvn test -Pjava21 -Dtest=VirtualThreadsBenchmarkTest -Dbenchmark=true}.
+ * <p>
+ * Virtual threads are not shipped as a profile because they have not been shown to help. On one CPU,
+ * each mode in its own JVM, bookings matched the platform baseline (about 155 req/s) but availability
+ * reads ran at 100 to 185 req/s against a steady 165. Without the request limit every request
+ * contended for a connection: threads spun in Hikari's hand-off and the 3 s connection timeout failed
+ * most availability reads. A limit of twice the pool size cost throughput, four times failed requests.
+ * Worth repeating against MySQL on multi-core hardware, where blocking on the network dominates.
+ */
+@TestPropertySource(properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.hikari.maximum-pool-size=20",
+        "spring.datasource.hikari.connection-timeout=3000",
+        "patient-record.virtual.concurrency-limit=20"
+})
+@EnabledForJreRange(min = JRE.JAVA_21)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VirtualThreadsBenchmarkTest extends BookingLoadBenchmark {
+
+    @Override
+    protected String mode() {
+        return "virtual";
+    }
+}
@@ -0,0 +1,58 @@
+package com.project.back_end.controllers;
+
+import com.project.back_end.services.AppointmentExportService;
+import com.project.back_end.services.Service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class AdminControllerTest {
+
+    private static final long EXPORT_TIMEOUT_MILLIS = 600_000;
+    private static final LocalDate FROM = LocalDate.of(2030, 1, 1);
+
+    private AppointmentExportService exportService;
+    private AdminController controller;
+    private MockHttpServletRequest request;
+    private StandardServletAsyncWebRequest asyncWebRequest;
+
+    @BeforeEach
+    void setUp() {
+        exportService = mock(AppointmentExportService.class);
+        controller = new AdminController(mock(Service.class), exportService);
+        ReflectionTestUtils.setField(controller, "exportTimeoutMillis", EXPORT_TIMEOUT_MILLIS);
+
+        // What the handler adapter sets up before invoking the controller, with the container default timeout
+        request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        asyncWebRequest = new StandardServletAsyncWebRequest(request, new MockHttpServletResponse());
+        asyncWebRequest.setTimeout(30_000L);
+        WebAsyncUtils.getAsyncManager(request).setAsyncWebRequest(asyncWebRequest);
+    }
+
+    @Test
+    void exportGetsItsOwnAsyncTimeout() {
+        assertEquals(HttpStatus.OK, controller.exportAppointments(FROM, FROM.plusDays(30), "csv", false, null, request).getStatusCode());
+
+        asyncWebRequest.startAsync();
+        assertEquals(EXPORT_TIMEOUT_MILLIS, request.getAsyncContext().getTimeout());
+    }
+
+    @Test
+    void exportRejectsUnknownFormatAndReversedRange() {
+        assertEquals(HttpStatus.BAD_REQUEST, controller.exportAppointments(FROM, FROM, "xml", false, null, request).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, controller.exportAppointments(FROM, FROM.minusDays(1), "csv", false, null, request).getStatusCode());
+        verifyNoInteractions(exportService);
+    }
+}
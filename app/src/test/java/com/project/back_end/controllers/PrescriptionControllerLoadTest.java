@@ -0,0 +1,152 @@
+package com.project.back_end.controllers;
+
+import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.PrescriptionRepository;
+import com.project.back_end.services.TokenService;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import reactor.core.publisher.Flux;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Load test for the prescription read path under a slow Mongo. Requests go over HTTP through
+ * Tomcat, the authentication interceptor and Spring MVC's async dispatch of the returned Mono,
+ * with far more requests in flight than Tomcat has worker threads.
+ *
+ * Mongo itself is a stand-in: the repository bean is a Mockito mock whose results arrive after
+ * a fixed delay on the reactor timer, the way the reactive driver waits on a slow node. No Mongo
+ * server (embedded or container) is available to the build, so the driver is not exercised.
+ *
+ * Takes about half a minute and asserts wall-clock bounds, so it only runs on request:
+ * {@code mvn test -Dtest=PrescriptionControllerLoadTest -Dbenchmark=true}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:prescription_load;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.data.mongodb.uri=mongodb://localhost:27017/prescriptions?serverSelectionTimeoutMS=500",
+        "appointment.status-job.enabled=false",
+        "server.tomcat.threads.max=" + PrescriptionControllerLoadTest.WORKERS,
+        "server.tomcat.threads.min-spare=" + PrescriptionControllerLoadTest.WORKERS
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PrescriptionControllerLoadTest {
+
+    static final int WORKERS = 4;
+    private static final int REQUESTS = 40;
+    private static final long MONGO_LATENCY_MILLIS = 500;
+    private static final long SAMPLE_MILLIS = 5;
+
+    @MockitoBean
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @LocalServerPort
+    private int port;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        when(prescriptionRepository.findByAppointmentId(anyLong())).thenAnswer(invocation -> Flux
+                .just(new Prescription("Jane Doe", invocation.getArgument(0), "Amoxicillin", "500mg", null))
+                .delayElements(Duration.ofMillis(MONGO_LATENCY_MILLIS)));
+
+        jdbcTemplate.update("DELETE FROM patient");
+        jdbcTemplate.update("INSERT INTO patient (id, name, email, password, phone, address) "
+                + "VALUES (1, 'Jane Doe', 'patient1@example.com', 'secret', '6660000001', 'Street 1')");
+        token = tokenService.generateToken("patient1@example.com", "patient", 1L);
+    }
+
+    @Test
+    void slowMongoDoesNotHoldTomcatWorkers() throws Exception {
+        ThreadPoolExecutor workers = (ThreadPoolExecutor) ((TomcatWebServer) context.getWebServer())
+                .getTomcat().getConnector().getProtocolHandler().getExecutor();
+        ExecutorService clientThreads = Executors.newFixedThreadPool(2);
+        HttpClient client = HttpClient.newBuilder().executor(clientThreads).build();
+        try {
+            // Warm up the handler chain, token caches and the reactor timer
+            assertEquals(200, get(client, 0).get(10, TimeUnit.SECONDS).statusCode());
+
+            // Samples how many workers are busy until every response is in, as worker-milliseconds
+            AtomicLong busyWorkerMillis = new AtomicLong();
+            AtomicBoolean sampling = new AtomicBoolean(true);
+            Thread sampler = new Thread(() -> {
+                while (sampling.get()) {
+                    busyWorkerMillis.addAndGet(workers.getActiveCount() * SAMPLE_MILLIS);
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(SAMPLE_MILLIS));
+                }
+            });
+            sampler.start();
+
+            long started = System.nanoTime();
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                responses.add(get(client, i));
+            }
+            CompletableFuture.allOf(responses.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+            long elapsedMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+            sampling.set(false);
+            sampler.join();
+
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                assertEquals(200, response.get().statusCode());
+                assertTrue(response.get().body().contains("Amoxicillin"));
+            }
+            // Workers held for the round-trip would be busy for REQUESTS x latency: 40 x 500 ms here.
+            // Released workers are busy only for dispatch, a small fraction of that
+            long heldForMongoMillis = REQUESTS * MONGO_LATENCY_MILLIS;
+            assertTrue(busyWorkerMillis.get() < heldForMongoMillis / 4,
+                    "Workers were busy for " + busyWorkerMillis.get() + " worker-ms; holding them for Mongo takes " + heldForMongoMillis);
+            // ...and would need REQUESTS / WORKERS sequential round-trips: 10 x 500 ms
+            long blockingLowerBoundMillis = REQUESTS / WORKERS * MONGO_LATENCY_MILLIS;
+            assertTrue(elapsedMillis < blockingLowerBoundMillis / 2,
+                    "Took " + elapsedMillis + " ms; workers held for the round-trip would need at least " + blockingLowerBoundMillis + " ms");
+        } finally {
+            clientThreads.shutdownNow();
+        }
+    }
+
+    private CompletableFuture<HttpResponse<String>> get(HttpClient client, long appointmentId) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/prescription/" + appointmentId + "/" + token))
+                .GET()
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,53 @@
+package com.project.back_end.controllers;
+
+import com.project.back_end.models.Prescription;
+import com.project.back_end.services.PrescriptionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PrescriptionControllerTest {
+
+    private static final int MAX_BULK_SIZE = 3;
+
+    private PrescriptionService prescriptionService;
+    private PrescriptionController controller;
+
+    @BeforeEach
+    void setUp() {
+        prescriptionService = mock(PrescriptionService.class);
+        controller = new PrescriptionController(prescriptionService);
+        ReflectionTestUtils.setField(controller, "maxBulkSize", MAX_BULK_SIZE);
+    }
+
+    @Test
+    void bulkSaveRejectsEmptyAndOversizedBatches() {
+        assertEquals(HttpStatus.BAD_REQUEST, controller.savePrescriptions(null, List.of()).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, controller.savePrescriptions(null, batch(MAX_BULK_SIZE + 1)).getStatusCode());
+        verify(prescriptionService, never()).savePrescriptions(anyList());
+    }
+
+    @Test
+    void bulkSaveAcceptsABatchAtTheLimit() {
+        when(prescriptionService.savePrescriptions(anyList())).thenReturn(new ResponseEntity<>(Map.of(), HttpStatus.CREATED));
+
+        assertEquals(HttpStatus.CREATED, controller.savePrescriptions(null, batch(MAX_BULK_SIZE)).getStatusCode());
+    }
+
+    private static List<Prescription> batch(int size) {
+        return Collections.nCopies(size, new Prescription("Jane Doe", 1L, "Amoxicillin", "500mg", null));
+    }
+}
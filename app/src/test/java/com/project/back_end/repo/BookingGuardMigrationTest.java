@@ -0,0 +1,85 @@
+package com.project.back_end.repo;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * V5 on a database that already holds double bookings: it must refuse to apply, name the
+ * conflicting appointments and leave every row in place, then apply once they are resolved.
+ */
+class BookingGuardMigrationTest {
+
+    private static final LocalDateTime SLOT = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void migrateToV4() {
+        String name = "migration_" + UUID.randomUUID().toString().replace("-", "");
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        flyway("4").migrate();
+
+        jdbcTemplate.update("INSERT INTO doctor (id, name, specialty, email, password, phone) VALUES (1, 'Doctor 1', 'cardiologist', 'doctor1@example.com', 'secret', '5550000001')");
+        jdbcTemplate.update("INSERT INTO patient (id, name, email, password, phone, address) VALUES (1, 'Patient 1', 'patient1@example.com', 'secret', '6660000001', 'Street 1')");
+        jdbcTemplate.update("INSERT INTO patient (id, name, email, password, phone, address) VALUES (2, 'Patient 2', 'patient2@example.com', 'secret', '6660000002', 'Street 2')");
+    }
+
+    @Test
+    void doubleBookingsStopTheMigrationWithoutDeletingAnything() {
+        insertAppointment(10L, 1L, SLOT);
+        insertAppointment(11L, 2L, SLOT);
+        insertAppointment(12L, 1L, SLOT.plusHours(1));
+
+        FlywayException failure = assertThrows(FlywayException.class, () -> flyway(null).migrate());
+
+        // Flyway wraps the migration's own exception, which carries the list; the startup log prints the chain
+        Throwable cause = failure;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        String message = cause.getMessage();
+        assertTrue(message.contains("doctor_id=1 appointment_time=" + SLOT + " appointment ids [10, 11]"), message);
+        assertTrue(!message.contains("12"), message);
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointment", Integer.class));
+    }
+
+    @Test
+    void appliesOnceConflictsAreResolved() {
+        insertAppointment(10L, 1L, SLOT);
+        insertAppointment(11L, 2L, SLOT);
+        assertThrows(FlywayException.class, () -> flyway(null).migrate());
+
+        // The operator's fix: move one booking, clear the failed attempt, restart
+        jdbcTemplate.update("UPDATE appointment SET appointment_time = ? WHERE id = 11", SLOT.plusHours(2));
+        flyway(null).repair();
+        flyway(null).migrate();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT version FROM appointment WHERE id = 10", Long.class));
+        assertThrows(Exception.class, () -> insertAppointment(13L, 2L, SLOT));
+    }
+
+    private Flyway flyway(String target) {
+        var configuration = Flyway.configure().dataSource(dataSource).locations("classpath:db/migration");
+        if (target != null) {
+            configuration.target(target);
+        }
+        return configuration.load();
+    }
+
+    private void insertAppointment(Long id, Long patientId, LocalDateTime time) {
+        jdbcTemplate.update("INSERT INTO appointment (id, doctor_id, patient_id, appointment_time, status) VALUES (?, 1, ?, ?, 0)", id, patientId, time);
+    }
+}
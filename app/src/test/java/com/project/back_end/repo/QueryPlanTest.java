@@ -0,0 +1,178 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.models.Patient;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every hot repository query against the Flyway-migrated schema on H2 and fails if
+ * EXPLAIN shows a full table scan. The SQL is captured from Hibernate, so a query change
+ * that stops using the index plan is caught here rather than in production.
+ *
+ * Deliberately not covered: the doctor directory filters and search fallback (leading-wildcard
+ * LIKE and lower(specialty), served by the in-memory search index) and the startup read that
+ * builds that index.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query_plans;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.project.back_end.repo.QueryPlanTest$RecordingInspector"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class QueryPlanTest {
+
+    private static final int DOCTORS = 50;
+    private static final int PATIENTS = 200;
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AdminRepository adminRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void seed() {
+        // Enough rows that the optimizer has a real choice between an index and a scan
+        List<Object[]> doctors = new ArrayList<>();
+        List<Object[]> times = new ArrayList<>();
+        for (long i = 1; i <= DOCTORS; i++) {
+            doctors.add(new Object[]{i, "Doctor " + i, i % 2 == 0 ? "cardiologist" : "dermatologist", "doctor" + i + "@example.com", "secret", "555000" + String.format("%04d", i)});
+            times.add(new Object[]{i, "09:00-10:00"});
+            times.add(new Object[]{i, "14:00-15:00"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO doctor (id, name, specialty, email, password, phone) VALUES (?, ?, ?, ?, ?, ?)", doctors);
+        jdbcTemplate.batchUpdate("INSERT INTO doctor_available_times (doctor_id, available_times) VALUES (?, ?)", times);
+
+        List<Object[]> patients = new ArrayList<>();
+        for (long i = 1; i <= PATIENTS; i++) {
+            patients.add(new Object[]{i, "Patient " + i, "patient" + i + "@example.com", "secret", "666000" + String.format("%04d", i), "Street " + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO patient (id, name, email, password, phone, address) VALUES (?, ?, ?, ?, ?, ?)", patients);
+
+        List<Object[]> appointments = new ArrayList<>();
+        for (long i = 1; i <= PATIENTS * 5; i++) {
+            appointments.add(new Object[]{i, i % DOCTORS + 1, i % PATIENTS + 1, START.plusHours(i), (int) (i % 2)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO appointment (id, doctor_id, patient_id, appointment_time, status, version) VALUES (?, ?, ?, ?, ?, 0)", appointments);
+
+        jdbcTemplate.update("INSERT INTO admin (id, username, password) VALUES (1, 'admin', 'secret')");
+    }
+
+    @Test
+    void appointmentQueriesUseIndexes() {
+        LocalDateTime from = START;
+        LocalDateTime to = START.plusDays(1);
+
+        assertIndexed(() -> appointmentRepository.findAppointmentTimesByDoctorIdAndAppointmentTimeBetween(1L, from, to));
+        assertIndexed(() -> appointmentRepository.findDoctorIdsAndAppointmentTimesBetween(List.of(1L, 2L, 3L), from, to));
+        assertIndexed(() -> appointmentRepository.findDtosByDoctorIdAndAppointmentTimeBetween(1L, from, to));
+        assertIndexed(() -> appointmentRepository.findDtosByDoctorIdAndPatientNameAndAppointmentTimeBetween(1L, "patient", from, to));
+        assertIndexed(() -> appointmentRepository.findDtosByPatientId(1L));
+        assertIndexed(() -> appointmentRepository.findDtosByPatientIdAndStatus(1L, 0));
+        assertIndexed(() -> appointmentRepository.existsByDoctorIdAndPatientId(1L, 1L));
+        assertIndexed(() -> appointmentRepository.filterDtosByDoctorNameAndPatientId("doctor", 1L));
+        assertIndexed(() -> appointmentRepository.filterDtosByDoctorNameAndPatientIdAndStatus("doctor", 1L, 0));
+        assertIndexed(() -> appointmentRepository.updateStatus(1, 1L));
+        assertIndexed(() -> appointmentRepository.deleteAllByDoctorId(DOCTORS + 1L));
+        assertIndexed(() -> appointmentRepository.findPendingIdsAndTimes(to, PageRequest.ofSize(100)));
+        assertIndexed(() -> appointmentRepository.markPast(List.of(1L, 2L, 3L)));
+        assertIndexed(() -> appointmentRepository.findOldestPendingTime(to));
+        assertIndexed(() -> {
+            try (Stream<AppointmentDTO> rows = entityManager.createQuery(AppointmentRepository.APPOINTMENT_EXPORT_QUERY, AppointmentDTO.class)
+                    .setParameter("start", from)
+                    .setParameter("end", to)
+                    .getResultStream()) {
+                rows.findFirst();
+            }
+        });
+    }
+
+    @Test
+    void doctorQueriesUseIndexes() {
+        assertIndexed(() -> doctorRepository.findByEmail("doctor1@example.com"));
+        assertIndexed(() -> doctorRepository.findSummariesAfter(10L, PageRequest.ofSize(20)));
+        assertIndexed(() -> doctorRepository.findAvailableTimesByDoctorIds(List.of(1L, 2L, 3L)));
+    }
+
+    @Test
+    void principalLookupsUseIndexes() {
+        // The lookups TokenService and login run on every cold token
+        assertIndexed(() -> adminRepository.findByUsername("admin"));
+        assertIndexed(() -> patientRepository.findByEmail("patient1@example.com"));
+    }
+
+    @Test
+    void signupDuplicateCheckUsesIndexes() {
+        // Patient signup rejects an email or phone that is already registered
+        List<Patient> found = new ArrayList<>();
+        assertIndexed(() -> found.add(patientRepository.findByEmailOrPhone("patient1@example.com", "6660000001")));
+        assertEquals(1L, found.get(0).getId());
+        assertIndexed(() -> found.add(patientRepository.findByEmailOrPhone("unknown@example.com", "6660000002")));
+        assertEquals(2L, found.get(1).getId());
+    }
+
+    // Runs the repository call, then EXPLAINs every statement Hibernate issued for it
+    private void assertIndexed(Runnable repositoryCall) {
+        RecordingInspector.STATEMENTS.clear();
+        repositoryCall.run();
+        List<String> statements = new ArrayList<>(RecordingInspector.STATEMENTS);
+        assertFalse(statements.isEmpty(), "Repository call issued no SQL");
+
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertTrue(!plan.toLowerCase().contains("tablescan"), () -> "Full table scan in plan for:\n" + sql + "\n\n" + plan);
+        }
+    }
+
+    // H2 plans parameterized statements without binding values, so placeholders can stay as they are
+    private String explain(String sql) {
+        StringBuilder plan = new StringBuilder();
+        for (Map<String, Object> row : jdbcTemplate.queryForList("EXPLAIN " + sql)) {
+            row.values().forEach(plan::append);
+        }
+        return plan.toString();
+    }
+
+    public static class RecordingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
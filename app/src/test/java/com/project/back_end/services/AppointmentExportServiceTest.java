@@ -0,0 +1,107 @@
+package com.project.back_end.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Exports against the Flyway-migrated schema on H2. The fetch size is a small positive row count,
+ * which every driver accepts, so the cursor is read in several round trips.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:appointment_export;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// The export opens its own read-only transaction, as it does on the response thread
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AppointmentExportServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2030, 1, 7);
+    private static final LocalDate TO = FROM.plusDays(1);
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private AppointmentExportService exportService;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM appointment");
+        jdbcTemplate.update("DELETE FROM patient");
+        jdbcTemplate.update("DELETE FROM doctor");
+        jdbcTemplate.update("INSERT INTO doctor (id, name, specialty, email, password, phone) VALUES (1, 'Dr. Who', 'cardiologist', 'doctor@example.com', 'secret', '5550000001')");
+        jdbcTemplate.update("INSERT INTO patient (id, name, email, password, phone, address) VALUES (1, 'Doe, \"Jo\"', 'jo@example.com', 'secret', '6660000001', 'Street')");
+
+        List<Object[]> appointments = new ArrayList<>();
+        appointments.add(new Object[]{1L, FROM.minusDays(1).atTime(23, 0)}); // Before the range
+        appointments.add(new Object[]{2L, TO.atTime(16, 0)});
+        appointments.add(new Object[]{3L, FROM.atStartOfDay()});
+        appointments.add(new Object[]{4L, FROM.atTime(9, 0)});
+        appointments.add(new Object[]{5L, TO.atTime(23, 0)});
+        appointments.add(new Object[]{6L, TO.plusDays(1).atStartOfDay()}); // After the range
+        jdbcTemplate.batchUpdate("INSERT INTO appointment (id, doctor_id, patient_id, appointment_time, status, version) VALUES (?, 1, 1, ?, 0, 0)", appointments);
+
+        exportService = new AppointmentExportService(entityManager, transactionManager, objectMapper, 2);
+    }
+
+    @Test
+    void csvHasHeaderAndRowsOfTheInclusiveRangeInTimeOrder() throws IOException {
+        List<String> lines = export(AppointmentExportService.Format.CSV);
+
+        assertEquals("id,doctorId,doctorName,patientId,patientName,patientEmail,patientPhone,appointmentTime,status", lines.get(0));
+        assertEquals(List.of("3", "4", "2", "5"), lines.subList(1, lines.size()).stream().map(line -> line.substring(0, line.indexOf(','))).toList());
+        assertEquals("3,1,Dr. Who,1,\"Doe, \"\"Jo\"\"\",jo@example.com,6660000001,2030-01-07T00:00,0", lines.get(1));
+    }
+
+    @Test
+    void ndjsonWritesOneDocumentPerLine() throws IOException {
+        List<String> lines = export(AppointmentExportService.Format.NDJSON);
+
+        assertEquals(4, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals(3, first.get("id").asLong());
+        assertEquals("Doe, \"Jo\"", first.get("patientName").asText());
+        assertEquals(5, objectMapper.readTree(lines.get(3)).get("id").asLong());
+    }
+
+    @Test
+    void emptyRangeWritesOnlyTheHeader() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(FROM.plusYears(1), FROM.plusYears(1), AppointmentExportService.Format.CSV, out);
+        assertEquals(1, out.toString(StandardCharsets.UTF_8).lines().count());
+    }
+
+    private List<String> export(AppointmentExportService.Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(FROM, TO, format, out);
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+}
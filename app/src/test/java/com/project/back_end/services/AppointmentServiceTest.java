@@ -0,0 +1,212 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.AppointmentSeries;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentBatchRepository;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.PatientRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Booking paths of AppointmentService with the slot registry and availability index real
+ * and the repositories mocked. A day counts as loaded once it has gone through the index.
+ */
+class AppointmentServiceTest {
+
+    private static final long DOCTOR_ID = 3L;
+    private static final long PATIENT_ID = 7L;
+    private static final LocalDate DAY = LocalDate.now().plusDays(7);
+    private static final LocalDateTime NINE = DAY.atTime(9, 0);
+
+    private AppointmentRepository appointmentRepository;
+    private PatientRepository patientRepository;
+    private AppointmentBatchRepository appointmentBatchRepository;
+    private DoctorService doctorService;
+    private AvailabilityIndex availabilityIndex;
+    private SlotHoldRegistry slotHolds;
+    private AppointmentService service;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(AppointmentRepository.class);
+        patientRepository = mock(PatientRepository.class);
+        appointmentBatchRepository = mock(AppointmentBatchRepository.class);
+        doctorService = mock(DoctorService.class);
+        availabilityIndex = new AvailabilityIndex(100);
+        slotHolds = new SlotHoldRegistry();
+        ReflectionTestUtils.setField(slotHolds, "maxTtlSeconds", 600L);
+        service = new AppointmentService(appointmentRepository, patientRepository, mock(Service.class),
+                availabilityIndex, slotHolds, appointmentBatchRepository, doctorService);
+        ReflectionTestUtils.setField(service, "maxSeriesOccurrences", 52);
+        ReflectionTestUtils.setField(service, "maxSeriesIntervalDays", 28);
+
+        Patient patient = new Patient();
+        patient.setId(PATIENT_ID);
+        when(patientRepository.getReferenceById(PATIENT_ID)).thenReturn(patient);
+    }
+
+    @Test
+    void bookingInsertsOnceForTheAuthenticatedPatient() {
+        // Names another patient and an existing appointment id in the body
+        Patient someoneElse = new Patient();
+        someoneElse.setId(99L);
+        Appointment appointment = appointment(NINE);
+        appointment.setPatient(someoneElse);
+        appointment.setId(500L);
+        appointment.setVersion(4L);
+
+        assertEquals(1, service.bookAppointment(appointment, PATIENT_ID));
+
+        ArgumentCaptor<Appointment> saved = ArgumentCaptor.forClass(Appointment.class);
+        verify(appointmentRepository).saveAndFlush(saved.capture());
+        assertEquals(PATIENT_ID, saved.getValue().getPatient().getId());
+        assertNull(saved.getValue().getId());
+        assertNull(saved.getValue().getVersion());
+        // No availability or doctor reads on the booking path
+        verify(doctorService, never()).getDailySlots(any(), any(LocalDate.class));
+    }
+
+    @Test
+    void slotTakenInLoadedDayIsConflictWithoutInsert() {
+        loadDay("09:00-10:00", "10:00-11:00");
+        availabilityIndex.book(DOCTOR_ID, NINE);
+
+        assertEquals(-1, service.bookAppointment(appointment(NINE), PATIENT_ID));
+        verify(appointmentRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void timeOutsideLoadedScheduleIsRejectedWithoutInsert() {
+        loadDay("09:00-10:00");
+
+        assertEquals(0, service.bookAppointment(appointment(DAY.atTime(3, 17)), PATIENT_ID));
+        verify(appointmentRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void uniqueConstraintDecidesAndMarksTheSlotTaken() {
+        loadDay("09:00-10:00");
+        when(appointmentRepository.saveAndFlush(any())).thenThrow(doctorTimeConflict());
+
+        assertEquals(-1, service.bookAppointment(appointment(NINE), PATIENT_ID));
+        assertEquals(false, availabilityIndex.peek(DOCTOR_ID, DAY).isFree(LocalTime.of(9, 0)));
+    }
+
+    @Test
+    void slotHeldByAnotherPatientIsConflict() {
+        assertNotNull(slotHolds.tryHold(DOCTOR_ID, NINE, 8L, 60));
+
+        assertEquals(-1, service.bookAppointment(appointment(NINE), PATIENT_ID));
+        verify(appointmentRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void failedBookingKeepsThePatientsHold() {
+        assertNotNull(slotHolds.tryHold(DOCTOR_ID, NINE, PATIENT_ID, 60));
+        when(appointmentRepository.saveAndFlush(any())).thenThrow(new IllegalStateException("connection reset"));
+
+        assertEquals(0, service.bookAppointment(appointment(NINE), PATIENT_ID));
+        assertNull(slotHolds.tryHold(DOCTOR_ID, NINE, 8L, 60));
+    }
+
+    @Test
+    void seriesConflictOnInsertRollsBackAndReleasesEveryClaim() {
+        Map<LocalDate, DailySlots> days = freeDays(3);
+        when(doctorService.getDailySlots(eq(DOCTOR_ID), anyList())).thenReturn(days);
+        doThrow(doctorTimeConflict()).when(appointmentBatchRepository).insertAll(eq(DOCTOR_ID), eq(PATIENT_ID), anyList());
+
+        assertEquals(HttpStatus.CONFLICT, service.bookSeries(weekly(3), PATIENT_ID).getStatusCode());
+
+        // Every claim was given back, so another patient can claim each slot again
+        for (LocalDate day : days.keySet()) {
+            assertNotNull(slotHolds.claim(DOCTOR_ID, day.atTime(9, 0), 8L, 10));
+        }
+    }
+
+    @Test
+    void seriesWithOneTakenSlotInsertsNothing() {
+        Map<LocalDate, DailySlots> days = freeDays(3);
+        days.get(DAY.plusDays(7)).book(LocalTime.of(9, 0));
+        when(doctorService.getDailySlots(eq(DOCTOR_ID), anyList())).thenReturn(days);
+
+        Map<String, Object> body = service.bookSeries(weekly(3), PATIENT_ID).getBody();
+
+        assertEquals(List.of(NINE.plusDays(7)), body.get("unavailable"));
+        verify(appointmentBatchRepository, never()).insertAll(any(), any(), anyList());
+        assertNotNull(slotHolds.claim(DOCTOR_ID, NINE, 8L, 10));
+        assertNotNull(slotHolds.claim(DOCTOR_ID, NINE.plusDays(14), 8L, 10));
+    }
+
+    @Test
+    void seriesWithPastOccurrenceIsRejected() {
+        AppointmentSeries series = weekly(3);
+        series.setFirstAppointmentTime(LocalDateTime.now().minusDays(1));
+
+        assertEquals(HttpStatus.BAD_REQUEST, service.bookSeries(series, PATIENT_ID).getStatusCode());
+        verify(doctorService, never()).getDailySlots(any(), anyList());
+    }
+
+    private void loadDay(String... slots) {
+        availabilityIndex.get(DOCTOR_ID, DAY, () -> new DailySlots(SlotSchedule.of(List.of(slots))));
+    }
+
+    static DataIntegrityViolationException doctorTimeConflict() {
+        return new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException("duplicate"), Appointment.DOCTOR_TIME_CONSTRAINT));
+    }
+
+    // Weekly days starting at DAY, each with a free 09:00 slot
+    private static Map<LocalDate, DailySlots> freeDays(int weeks) {
+        Map<LocalDate, DailySlots> days = new LinkedHashMap<>();
+        for (int i = 0; i < weeks; i++) {
+            days.put(DAY.plusDays(7L * i), new DailySlots(SlotSchedule.of(List.of("09:00-10:00"))));
+        }
+        return days;
+    }
+
+    private static AppointmentSeries weekly(int occurrences) {
+        AppointmentSeries series = new AppointmentSeries();
+        series.setDoctorId(DOCTOR_ID);
+        series.setFirstAppointmentTime(NINE);
+        series.setOccurrences(occurrences);
+        series.setIntervalDays(7);
+        return series;
+    }
+
+    private static Appointment appointment(LocalDateTime time) {
+        Doctor doctor = new Doctor();
+        doctor.setId(DOCTOR_ID);
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setAppointmentTime(time);
+        return appointment;
+    }
+}
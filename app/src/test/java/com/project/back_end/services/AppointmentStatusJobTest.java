@@ -0,0 +1,120 @@
+package com.project.back_end.services;
+
+import com.project.back_end.repo.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the status job against the Flyway-migrated schema on H2: chunking, the per-run batch
+ * limit, the version bump of markPast, and stats that stay readable while a run is in progress.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:status_job;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class AppointmentStatusJobTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 7, 12, 0);
+    private static final int ELAPSED = 7;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO doctor (id, name, specialty, email, password, phone) VALUES (1, 'Doctor', 'cardiologist', 'doctor@example.com', 'secret', '5550000001')");
+        jdbcTemplate.update("INSERT INTO patient (id, name, email, password, phone, address) VALUES (1, 'Patient', 'patient@example.com', 'secret', '6660000001', 'Street')");
+
+        List<Object[]> appointments = new ArrayList<>();
+        for (long i = 1; i <= ELAPSED; i++) {
+            // Ended more than the 60 minute grace period before NOW
+            appointments.add(new Object[]{i, NOW.minusHours(2).minusHours(i)});
+        }
+        appointments.add(new Object[]{100L, NOW.minusMinutes(30)}); // Inside the grace period
+        appointments.add(new Object[]{101L, NOW.plusDays(1)});
+        jdbcTemplate.batchUpdate("INSERT INTO appointment (id, doctor_id, patient_id, appointment_time, status, version) VALUES (?, 1, 1, ?, 0, 0)", appointments);
+    }
+
+    @Test
+    void marksEveryElapsedRowInChunksAndBumpsTheVersion() {
+        AppointmentStatusJob job = job(appointmentRepository, 3, 10);
+
+        assertEquals(ELAPSED, job.runOnce(NOW));
+
+        assertEquals(ELAPSED, count("status = 1 AND version = 1"));
+        assertEquals(2, count("status = 0 AND version = 0"));
+        Map<String, Object> stats = job.stats();
+        assertEquals((long) ELAPSED, stats.get("rowsProcessed"));
+        assertEquals(0L, stats.get("lagSeconds"));
+        assertEquals(NOW, stats.get("lastRunAt"));
+
+        // Rows already marked are not selected or bumped again
+        assertEquals(0, job.runOnce(NOW));
+        assertEquals(ELAPSED, count("status = 1 AND version = 1"));
+    }
+
+    @Test
+    void batchLimitLeavesTheRestForTheNextRun() {
+        AppointmentStatusJob job = job(appointmentRepository, 2, 2);
+
+        assertEquals(4, job.runOnce(NOW));
+        assertTrue((long) job.stats().get("lagSeconds") > 0);
+
+        assertEquals(ELAPSED - 4, job.runOnce(NOW));
+        assertEquals((long) ELAPSED, job.stats().get("rowsProcessed"));
+        assertEquals(0L, job.stats().get("lagSeconds"));
+    }
+
+    @Test
+    void statsDoNotWaitForARunInProgress() throws Exception {
+        AppointmentRepository blocked = mock(AppointmentRepository.class);
+        CountDownLatch selecting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(blocked.findPendingIdsAndTimes(any(), any())).thenAnswer(invocation -> {
+            selecting.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return List.of();
+        });
+        AppointmentStatusJob job = job(blocked, 2, 2);
+
+        CompletableFuture<Long> run = CompletableFuture.supplyAsync(() -> job.runOnce(NOW));
+        try {
+            assertTrue(selecting.await(10, TimeUnit.SECONDS));
+            Map<String, Object> stats = CompletableFuture.supplyAsync(job::stats).get(1, TimeUnit.SECONDS);
+            assertEquals(0L, stats.get("rowsProcessed"));
+        } finally {
+            release.countDown();
+        }
+        assertEquals(0L, run.get(10, TimeUnit.SECONDS));
+    }
+
+    private int count(String where) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointment WHERE " + where, Integer.class);
+    }
+
+    private static AppointmentStatusJob job(AppointmentRepository repository, int batchSize, int maxBatchesPerRun) {
+        return new AppointmentStatusJob(repository, true, batchSize, maxBatchesPerRun, 60);
+    }
+}
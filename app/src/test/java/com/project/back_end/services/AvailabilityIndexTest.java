@@ -0,0 +1,134 @@
+package com.project.back_end.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The generation guard on lazy loads: a day read before a concurrent update of the same
+ * doctor is handed to its caller but never installed, while other doctors keep filling.
+ */
+class AvailabilityIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 7);
+    private static final LocalDateTime NINE = DAY.atTime(9, 0);
+
+    private AvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new AvailabilityIndex(100);
+    }
+
+    @Test
+    void loadedDayIsKeptAndUpdatedInPlace() {
+        DailySlots loaded = index.get(1L, DAY, AvailabilityIndexTest::freeDay);
+
+        assertSame(loaded, index.get(1L, DAY, () -> {
+            throw new AssertionError("Loaded twice");
+        }));
+        index.book(1L, NINE);
+        assertFalse(index.peek(1L, DAY).isFree(LocalTime.of(9, 0)));
+    }
+
+    @Test
+    void loadOverlappingBookIsNotInstalled() {
+        // The load read the day before the booking committed, so its copy still shows 09:00 free
+        DailySlots stale = index.get(1L, DAY, () -> {
+            DailySlots slots = freeDay();
+            index.book(1L, NINE);
+            return slots;
+        });
+
+        assertTrue(stale.isFree(LocalTime.of(9, 0)));
+        assertNull(index.peek(1L, DAY));
+    }
+
+    @Test
+    void loadOverlappingEvictIsNotInstalled() {
+        index.get(1L, DAY, () -> {
+            DailySlots slots = freeDay();
+            index.evictDoctor(1L);
+            return slots;
+        });
+
+        assertNull(index.peek(1L, DAY));
+    }
+
+    @Test
+    void batchLoadOverlappingReleaseIsNotInstalled() {
+        Map<LocalDate, DailySlots> days = index.getAll(1L, List.of(DAY, DAY.plusDays(1)), dates -> {
+            Map<LocalDate, DailySlots> loaded = Map.of(DAY, freeDay(), DAY.plusDays(1), freeDay());
+            index.release(1L, NINE);
+            return loaded;
+        });
+
+        assertNotNull(days.get(DAY));
+        assertNull(index.peek(1L, DAY));
+        assertNull(index.peek(1L, DAY.plusDays(1)));
+    }
+
+    @Test
+    void updateOfAnotherDoctorDoesNotDiscardTheLoad() {
+        index.get(1L, DAY, () -> {
+            DailySlots slots = freeDay();
+            index.book(2L, NINE);
+            return slots;
+        });
+
+        assertNotNull(index.peek(1L, DAY));
+    }
+
+    @Test
+    void loadOnAnotherThreadOverlappingBookIsNotInstalled() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch booked = new CountDownLatch(1);
+        CompletableFuture<DailySlots> load = CompletableFuture.supplyAsync(() -> index.get(1L, DAY, () -> {
+            DailySlots slots = freeDay();
+            loading.countDown();
+            await(booked);
+            return slots;
+        }));
+
+        await(loading);
+        index.book(1L, NINE);
+        booked.countDown();
+
+        assertTrue(load.get(10, TimeUnit.SECONDS).isFree(LocalTime.of(9, 0)));
+        assertNull(index.peek(1L, DAY));
+        // The next read loads afresh
+        DailySlots fresh = freeDay();
+        fresh.book(LocalTime.of(9, 0));
+        assertSame(fresh, index.get(1L, DAY, () -> fresh));
+        assertSame(fresh, index.peek(1L, DAY));
+    }
+
+    private static DailySlots freeDay() {
+        return new DailySlots(SlotSchedule.of(List.of("09:00-10:00", "10:00-11:00")));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new AssertionError("Timed out waiting for the other thread");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        }
+    }
+}
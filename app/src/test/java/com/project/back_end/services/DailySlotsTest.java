@@ -0,0 +1,80 @@
+package com.project.back_end.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DailySlotsTest {
+
+    @Test
+    void slotsAtTheEdgesOfTheDayAreOffered() {
+        SlotSchedule schedule = SlotSchedule.of(List.of("23:30-00:00", "00:00-01:00"));
+
+        assertEquals(2, schedule.size());
+        assertEquals(0, schedule.startMinute(0));
+        assertEquals(23 * 60 + 30, schedule.startMinute(1));
+        assertTrue(schedule.offers(LocalTime.MIDNIGHT));
+        assertTrue(schedule.offers(LocalTime.of(23, 30)));
+        assertFalse(schedule.offers(LocalTime.of(23, 59)));
+    }
+
+    @Test
+    void overlappingRangesAreSeparateSlotsAndDuplicateStartsKeepTheFirstLabel() {
+        SlotSchedule schedule = SlotSchedule.of(List.of("09:30-10:30", "09:00-10:00", "09:00-09:30"));
+
+        assertEquals(2, schedule.size());
+        assertEquals("09:00-10:00", schedule.label(0));
+        assertEquals("09:30-10:30", schedule.label(1));
+    }
+
+    @Test
+    void malformedEntriesAreSkipped() {
+        SlotSchedule schedule = SlotSchedule.of(Arrays.asList(
+                null, "", "9am-10am", "25:00-26:00", "09:00:30-10:00", "-10:00", "14:00-15:00", " 16:00 - 17:00 "));
+
+        assertEquals(2, schedule.size());
+        assertEquals("14:00-15:00", schedule.label(0));
+        assertEquals(16 * 60, schedule.startMinute(1));
+        assertEquals(0, SlotSchedule.of(null).size());
+    }
+
+    @Test
+    void timesOffAMinuteBoundaryAreNotSlots() {
+        assertEquals(-1, SlotSchedule.minuteOf(LocalTime.of(9, 0, 1)));
+        assertEquals(-1, SlotSchedule.minuteOf(LocalTime.of(9, 0, 0, 1)));
+        assertEquals(SlotSchedule.MINUTES_PER_DAY - 1, SlotSchedule.minuteOf(LocalTime.of(23, 59)));
+    }
+
+    @Test
+    void bookingAndReleasingUpdateFreeSlots() {
+        DailySlots slots = new DailySlots(SlotSchedule.of(List.of("00:00-01:00", "09:00-10:00", "23:30-00:00")));
+
+        slots.book(LocalTime.MIDNIGHT);
+        slots.book(LocalTime.of(23, 30));
+        assertFalse(slots.isFree(LocalTime.MIDNIGHT));
+        assertEquals(List.of("09:00-10:00"), slots.freeLabels());
+        assertEquals(1, slots.nextFree(0));
+        assertEquals(-1, slots.nextFree(2));
+
+        slots.release(LocalTime.of(23, 30));
+        assertEquals(List.of("09:00-10:00", "23:30-00:00"), slots.freeLabels());
+    }
+
+    @Test
+    void timesThatDoNotStartASlotCannotBeBooked() {
+        DailySlots slots = new DailySlots(SlotSchedule.of(List.of("09:00-10:00")));
+
+        slots.book(LocalTime.of(9, 30));
+        slots.book(LocalTime.of(9, 0, 30));
+        slots.release(LocalTime.of(9, 0, 30));
+        assertTrue(slots.isFree(LocalTime.of(9, 0)));
+        assertFalse(slots.isFree(LocalTime.of(9, 30)));
+        assertFalse(slots.isFree(-1));
+    }
+}
@@ -0,0 +1,94 @@
+package com.project.back_end.services;
+
+import com.project.back_end.repo.DoctorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DoctorSearchIndexTest {
+
+    private DoctorRepository doctorRepository;
+    private DoctorSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        doctorRepository = mock(DoctorRepository.class);
+        when(doctorRepository.findAllIdsNamesAndSpecialties()).thenReturn(List.of(
+                new Object[]{1L, "John Smith", "Cardiologist"},
+                new Object[]{2L, "Anna Johnson", "Dermatologist"},
+                new Object[]{3L, "Rajohna Lee", "Neurologist"},
+                new Object[]{4L, "Bo Li", "Pediatrician"}));
+        index = new DoctorSearchIndex(doctorRepository);
+        index.build();
+    }
+
+    @Test
+    void shortQueriesScanEntries() {
+        assertEquals(Set.of(4L), index.matchName("bo"));
+        assertEquals(Set.of(2L), index.matchName("AN"));
+        assertTrue(index.matchName("zz").isEmpty());
+    }
+
+    @Test
+    void longerQueriesMatchSubstringsIgnoringCase() {
+        assertEquals(Set.of(1L), index.matchName("SMI"));
+        assertEquals(Set.of(1L, 2L, 3L), index.matchName("john"));
+        // Every trigram of the query is indexed, but not as one substring of a single name
+        assertTrue(index.matchName("johnsmith").isEmpty());
+        assertTrue(index.matchName("xyz").isEmpty());
+    }
+
+    @Test
+    void searchRanksPrefixThenWordStartThenOtherMatches() {
+        assertEquals(List.of(1L, 2L, 3L), index.search("joh", 10));
+        assertEquals(List.of(1L, 2L), index.search("joh", 2));
+    }
+
+    @Test
+    void searchAlsoMatchesSpecialties() {
+        // No name matches, so all rank alike and are ordered by name
+        assertEquals(List.of(2L, 1L, 3L), index.search("olog", 10));
+        assertEquals(List.of(4L), index.search("pediat", 10));
+    }
+
+    @Test
+    void putReplacesAndRemoveDropsADoctor() {
+        index.put(1L, "Jane Doe", "Cardiologist");
+        assertFalse(index.matchName("smith").contains(1L));
+        assertEquals(Set.of(1L), index.matchName("jane"));
+
+        index.put(5L, "Zoe Smithers", "Oncologist");
+        assertEquals(Set.of(5L), index.matchName("smith"));
+
+        index.remove(5L);
+        assertTrue(index.matchName("smith").isEmpty());
+        assertTrue(index.search("oncol", 10).isEmpty());
+    }
+
+    @Test
+    void writesDuringARebuildAreNotLost() {
+        // Doctors saved or deleted while the rebuild reads the table, after its snapshot was taken
+        when(doctorRepository.findAllIdsNamesAndSpecialties()).thenAnswer(invocation -> {
+            List<Object[]> snapshot = List.of(
+                    new Object[]{1L, "John Smith", "Cardiologist"},
+                    new Object[]{2L, "Anna Johnson", "Dermatologist"});
+            index.put(6L, "Mia Wong", "Surgeon");
+            index.remove(2L);
+            return snapshot;
+        });
+        index.build();
+
+        assertTrue(index.isReady());
+        assertEquals(Set.of(6L), index.matchName("wong"));
+        assertTrue(index.matchName("anna").isEmpty());
+        assertEquals(Set.of(1L), index.matchName("smith"));
+    }
+}
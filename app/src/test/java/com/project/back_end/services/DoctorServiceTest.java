@@ -0,0 +1,67 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.AvailableSlotDTO;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * The earliest-slot search across a specialty, fed from the (id, name, specialty, slot) projection.
+ */
+class DoctorServiceTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(7);
+
+    private DoctorRepository doctorRepository;
+    private AppointmentRepository appointmentRepository;
+    private DoctorService service;
+
+    @BeforeEach
+    void setUp() {
+        doctorRepository = mock(DoctorRepository.class);
+        appointmentRepository = mock(AppointmentRepository.class);
+        service = new DoctorService(doctorRepository, appointmentRepository, mock(TokenService.class),
+                new AvailabilityIndex(100), mock(DoctorSearchIndex.class));
+    }
+
+    @Test
+    void earliestSlotsMergeDoctorsAndSkipBookings() {
+        when(doctorRepository.findSchedulesBySpecialty("Cardiologist")).thenReturn(List.of(
+                new Object[]{1L, "Dr. A", "cardiologist", "10:00-11:00"},
+                new Object[]{2L, "Dr. B", "cardiologist", "09:00-10:00"},
+                new Object[]{1L, "Dr. A", "cardiologist", "09:00-10:00"}));
+        when(appointmentRepository.findDoctorIdsAndAppointmentTimesBetween(anyCollection(), any(), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, DAY.atTime(9, 0)}));
+
+        List<AvailableSlotDTO> slots = service.findEarliestSlots("Cardiologist", DAY, DAY.plusDays(1), 3);
+
+        assertEquals(List.of(2L, 1L, 2L), slots.stream().map(AvailableSlotDTO::getDoctorId).toList());
+        assertEquals(List.of(DAY.atTime(9, 0), DAY.atTime(10, 0), DAY.plusDays(1).atTime(9, 0)),
+                slots.stream().map(AvailableSlotDTO::getStartTime).toList());
+        assertEquals("Dr. A", slots.get(1).getDoctorName());
+        assertEquals("10:00-11:00", slots.get(1).getSlot());
+        // No entities are loaded for the search
+        verify(doctorRepository, never()).findById(any());
+    }
+
+    @Test
+    void unknownSpecialtySkipsTheAppointmentQuery() {
+        when(doctorRepository.findSchedulesBySpecialty("podiatrist")).thenReturn(List.of());
+
+        assertEquals(List.of(), service.findEarliestSlots("podiatrist", DAY, DAY, 5));
+        verifyNoInteractions(appointmentRepository);
+    }
+}
@@ -0,0 +1,207 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.auth.AuthenticatedUser;
+import com.project.back_end.models.Patient;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.repo.PrescriptionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Join, authorization and failure paths of the patient record. Repositories are Mockito
+ * stand-ins; most tests run the lookups on the calling thread so results are immediate.
+ */
+class PatientRecordServiceTest {
+
+    private static final long PATIENT_ID = 7L;
+    private static final Executor CALLER_RUNS = Runnable::run;
+
+    private AppointmentRepository appointmentRepository;
+    private PatientRepository patientRepository;
+    private PrescriptionRepository prescriptionRepository;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(AppointmentRepository.class);
+        patientRepository = mock(PatientRepository.class);
+        prescriptionRepository = mock(PrescriptionRepository.class);
+    }
+
+    @Test
+    void prescriptionsAreAttachedToTheirAppointments() {
+        when(patientRepository.findById(PATIENT_ID)).thenReturn(Optional.of(patient()));
+        when(appointmentRepository.findDtosByPatientId(PATIENT_ID)).thenReturn(List.of(appointment(1L), appointment(2L)));
+        Prescription first = new Prescription("Ana Ruiz", 1L, "Amoxicillin", "500mg", null);
+        Prescription second = new Prescription("Ana Ruiz", 1L, "Ibuprofen", "200mg", null);
+        when(prescriptionRepository.findByAppointmentIdIn(List.of(1L, 2L))).thenReturn(Flux.just(first, second));
+
+        ResponseEntity<Map<String, Object>> response = record(service(CALLER_RUNS, 5000), patientCaller(PATIENT_ID));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<?> entries = (List<?>) response.getBody().get("appointments");
+        assertEquals(2, entries.size());
+        assertEquals(List.of(first, second), ((Map<?, ?>) entries.get(0)).get("prescriptions"));
+        assertEquals(List.of(), ((Map<?, ?>) entries.get(1)).get("prescriptions"));
+    }
+
+    @Test
+    void prescriptionQueryDoesNotWaitForPatientLookup() {
+        when(patientRepository.findById(PATIENT_ID)).thenReturn(Optional.of(patient()));
+        when(appointmentRepository.findDtosByPatientId(PATIENT_ID)).thenReturn(List.of(appointment(1L)));
+        when(prescriptionRepository.findByAppointmentIdIn(List.of(1L))).thenReturn(Flux.empty());
+        // Runs the appointment query (submitted first) at once and holds the patient lookup back
+        List<Runnable> submitted = new ArrayList<>();
+        List<Runnable> held = new ArrayList<>();
+        Executor holdSecond = task -> {
+            submitted.add(task);
+            if (submitted.size() == 1) {
+                task.run();
+            } else {
+                held.add(task);
+            }
+        };
+
+        CompletableFuture<ResponseEntity<Map<String, Object>>> pending = service(holdSecond, 5000).getPatientRecord(PATIENT_ID, patientCaller(PATIENT_ID));
+
+        verify(prescriptionRepository).findByAppointmentIdIn(List.of(1L));
+        verify(patientRepository, never()).findById(any());
+        held.forEach(Runnable::run);
+        assertEquals(HttpStatus.OK, pending.orTimeout(10, TimeUnit.SECONDS).join().getStatusCode());
+    }
+
+    @Test
+    void doctorMayViewTheirPatientsRecord() {
+        when(appointmentRepository.existsByDoctorIdAndPatientId(3L, PATIENT_ID)).thenReturn(true);
+        when(patientRepository.findById(PATIENT_ID)).thenReturn(Optional.of(patient()));
+        when(appointmentRepository.findDtosByPatientId(PATIENT_ID)).thenReturn(List.of());
+
+        ResponseEntity<Map<String, Object>> response = record(service(CALLER_RUNS, 5000), doctorCaller(3L));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void doctorWithoutAppointmentIsUnauthorizedWithoutQuerying() {
+        when(appointmentRepository.existsByDoctorIdAndPatientId(4L, PATIENT_ID)).thenReturn(false);
+
+        ResponseEntity<Map<String, Object>> response = record(service(CALLER_RUNS, 5000), doctorCaller(4L));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verify(appointmentRepository, never()).findDtosByPatientId(any());
+        verifyNoInteractions(patientRepository, prescriptionRepository);
+    }
+
+    @Test
+    void otherPatientIsUnauthorizedWithoutQuerying() {
+        ResponseEntity<Map<String, Object>> response = record(service(CALLER_RUNS, 5000), patientCaller(8L));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verifyNoInteractions(appointmentRepository, patientRepository, prescriptionRepository);
+    }
+
+    @Test
+    void missingPatientIsNotFound() {
+        when(patientRepository.findById(PATIENT_ID)).thenReturn(Optional.empty());
+        when(appointmentRepository.findDtosByPatientId(PATIENT_ID)).thenReturn(List.of());
+
+        ResponseEntity<Map<String, Object>> response = record(service(CALLER_RUNS, 5000), patientCaller(PATIENT_ID));
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(prescriptionRepository, never()).findByAppointmentIdIn(any());
+    }
+
+    @Test
+    void saturatedExecutorIsServiceUnavailableAndCancelsQueuedLookup() {
+        // Queues the first task and rejects the second, as a full pool would
+        List<Runnable> queued = new ArrayList<>();
+        Executor saturated = task -> {
+            if (!queued.isEmpty()) {
+                throw new TaskRejectedException("record pool is full");
+            }
+            queued.add(task);
+        };
+
+        ResponseEntity<Map<String, Object>> response = record(service(saturated, 5000), patientCaller(PATIENT_ID));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        // The queued appointment lookup was cancelled, so running it later does no work
+        queued.get(0).run();
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    @Test
+    void slowStoreTimesOut() {
+        when(patientRepository.findById(PATIENT_ID)).thenReturn(Optional.of(patient()));
+        when(appointmentRepository.findDtosByPatientId(PATIENT_ID)).thenReturn(List.of(appointment(1L)));
+        when(prescriptionRepository.findByAppointmentIdIn(List.of(1L))).thenReturn(Flux.never());
+
+        long start = System.nanoTime();
+        ResponseEntity<Map<String, Object>> response = record(service(CALLER_RUNS, 100), patientCaller(PATIENT_ID));
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, response.getStatusCode());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+    }
+
+    @Test
+    void storeFailureIsInternalError() {
+        when(patientRepository.findById(PATIENT_ID)).thenReturn(Optional.of(patient()));
+        when(appointmentRepository.findDtosByPatientId(PATIENT_ID)).thenThrow(new IllegalStateException("connection reset"));
+
+        ResponseEntity<Map<String, Object>> response = record(service(CALLER_RUNS, 5000), patientCaller(PATIENT_ID));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+
+    private PatientRecordService service(Executor executor, long timeoutMillis) {
+        return new PatientRecordService(appointmentRepository, patientRepository, prescriptionRepository, executor, timeoutMillis);
+    }
+
+    private static ResponseEntity<Map<String, Object>> record(PatientRecordService service, AuthenticatedUser caller) {
+        return service.getPatientRecord(PATIENT_ID, caller).orTimeout(10, TimeUnit.SECONDS).join();
+    }
+
+    private static AuthenticatedUser doctorCaller(Long id) {
+        return new AuthenticatedUser("doctor", "doctor" + id + "@example.com", id, () -> null);
+    }
+
+    private static AuthenticatedUser patientCaller(Long id) {
+        return new AuthenticatedUser("patient", "ana@example.com", id, () -> null);
+    }
+
+    private static Patient patient() {
+        Patient patient = new Patient();
+        patient.setId(PATIENT_ID);
+        patient.setName("Ana Ruiz");
+        return patient;
+    }
+
+    private static AppointmentDTO appointment(Long id) {
+        return new AppointmentDTO(id, 3L, "Dr. Lee", PATIENT_ID, "Ana Ruiz", "ana@example.com",
+                "5551234567", "1 Main St", LocalDateTime.of(2030, 1, id.intValue(), 9, 0), 0);
+    }
+}
@@ -0,0 +1,54 @@
+package com.project.back_end.services;
+
+import com.project.back_end.auth.AuthenticatedUser;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Who may list a patient's appointments: the patient themselves and nobody else.
+ */
+class PatientServiceTest {
+
+    private AppointmentRepository appointmentRepository;
+    private PatientService service;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(AppointmentRepository.class);
+        service = new PatientService(mock(PatientRepository.class), appointmentRepository);
+    }
+
+    @Test
+    void patientMayListOwnAppointments() {
+        when(appointmentRepository.findDtosByPatientId(7L)).thenReturn(List.of());
+
+        assertEquals(HttpStatus.OK, service.getPatientAppointment(7L, caller("patient", 7L)).getStatusCode());
+    }
+
+    @Test
+    void otherPatientIsUnauthorized() {
+        assertEquals(HttpStatus.UNAUTHORIZED, service.getPatientAppointment(7L, caller("patient", 8L)).getStatusCode());
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    @Test
+    void doctorIsUnauthorized() {
+        // Even a doctor whose id happens to equal the patient id
+        assertEquals(HttpStatus.UNAUTHORIZED, service.getPatientAppointment(7L, caller("doctor", 7L)).getStatusCode());
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    private static AuthenticatedUser caller(String role, Long id) {
+        return new AuthenticatedUser(role, role + id + "@example.com", id, () -> null);
+    }
+}
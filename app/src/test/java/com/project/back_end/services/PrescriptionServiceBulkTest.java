@@ -0,0 +1,160 @@
+package com.project.back_end.services;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.project.back_end.models.Prescription;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Result mapping of the bulk prescription insert. The bulk write is a Mockito stand-in
+ * that records what was sent and fails chosen positions the way an unordered bulk
+ * write reports them: by index within the documents actually sent.
+ */
+class PrescriptionServiceBulkTest {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private ValidatorFactory validatorFactory;
+    private BulkOperations bulkOperations;
+    private List<Prescription> sent;
+    private PrescriptionService service;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        bulkOperations = mock(BulkOperations.class);
+        sent = new ArrayList<>();
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(Prescription.class))).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenAnswer(invocation -> {
+            sent.addAll(invocation.getArgument(0));
+            return bulkOperations;
+        });
+        service = new PrescriptionService(null, mongoTemplate, validatorFactory.getValidator());
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void allValidBatchIsCreated() {
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.unacknowledged());
+
+        ResponseEntity<Map<String, Object>> response = service.savePrescriptions(List.of(prescription(1L), prescription(2L)));
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(2, response.getBody().get("created"));
+        assertEquals(0, response.getBody().get("failed"));
+        List<Map<String, Object>> results = results(response);
+        assertEquals(List.of("created", "created"), statuses(results));
+        assertEquals(sent.get(0).getId(), results.get(0).get("id"));
+        assertEquals(sent.get(1).getId(), results.get(1).get("id"));
+    }
+
+    @Test
+    void callerSuppliedIdsAreKept() {
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.unacknowledged());
+        Prescription migrated = prescription(1L);
+        migrated.setId("64b7f0c2a1e4d3b2c1a09f88");
+
+        List<Map<String, Object>> results = results(service.savePrescriptions(List.of(migrated, prescription(2L))));
+
+        assertEquals("64b7f0c2a1e4d3b2c1a09f88", sent.get(0).getId());
+        assertEquals("64b7f0c2a1e4d3b2c1a09f88", results.get(0).get("id"));
+        assertNotNull(sent.get(1).getId());
+        assertEquals(sent.get(1).getId(), results.get(1).get("id"));
+    }
+
+    @Test
+    void mixedBatchMapsBulkErrorsBackToInputPositions() {
+        // Inputs 0 and 3 are invalid, so the bulk holds inputs 1, 2 and 4; its index 1 is input 2
+        when(bulkOperations.execute()).thenThrow(new BulkOperationException("bulk failed", new MongoBulkWriteException(
+                BulkWriteResult.unacknowledged(),
+                List.of(new BulkWriteError(DUPLICATE_KEY, "E11000 duplicate key error", new BsonDocument(), 1)),
+                null, new ServerAddress(), Set.of())));
+
+        Prescription missingMedication = prescription(10L);
+        missingMedication.setMedication(null);
+        ResponseEntity<Map<String, Object>> response = service.savePrescriptions(Arrays.asList(
+                missingMedication, prescription(11L), prescription(12L), null, prescription(14L)));
+
+        assertEquals(HttpStatus.MULTI_STATUS, response.getStatusCode());
+        assertEquals(2, response.getBody().get("created"));
+        assertEquals(3, response.getBody().get("failed"));
+        assertEquals(List.of(11L, 12L, 14L), sent.stream().map(Prescription::getAppointmentId).toList());
+
+        List<Map<String, Object>> results = results(response);
+        assertEquals(List.of("invalid", "created", "failed", "invalid", "created"), statuses(results));
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).get("index"));
+        }
+        assertEquals("medication must not be null", results.get(0).get("message"));
+        assertEquals("Missing prescription", results.get(3).get("message"));
+        assertEquals("E11000 duplicate key error", results.get(2).get("message"));
+        assertNotNull(results.get(1).get("id"));
+        assertNotNull(results.get(4).get("id"));
+    }
+
+    @Test
+    void failedBulkWriteMarksEveryValidItemFailed() {
+        when(bulkOperations.execute()).thenThrow(new IllegalStateException("connection reset"));
+
+        ResponseEntity<Map<String, Object>> response = service.savePrescriptions(Arrays.asList(prescription(1L), null));
+
+        assertEquals(HttpStatus.MULTI_STATUS, response.getStatusCode());
+        assertEquals(0, response.getBody().get("created"));
+        assertEquals(List.of("failed", "invalid"), statuses(results(response)));
+    }
+
+    @Test
+    void batchWithNothingValidSkipsTheWrite() {
+        Prescription blankDosage = prescription(1L);
+        blankDosage.setDosage(null);
+
+        ResponseEntity<Map<String, Object>> response = service.savePrescriptions(List.of(blankDosage));
+
+        assertEquals(HttpStatus.MULTI_STATUS, response.getStatusCode());
+        assertEquals(List.of("invalid"), statuses(results(response)));
+        assertEquals(List.of(), sent);
+    }
+
+    private static Prescription prescription(Long appointmentId) {
+        return new Prescription("Jane Doe", appointmentId, "Amoxicillin", "500mg", null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> results(ResponseEntity<Map<String, Object>> response) {
+        return (List<Map<String, Object>>) response.getBody().get("results");
+    }
+
+    private static List<Object> statuses(List<Map<String, Object>> results) {
+        return results.stream().map(result -> result.get("status")).toList();
+    }
+}
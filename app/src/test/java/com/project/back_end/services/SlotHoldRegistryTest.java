@@ -0,0 +1,147 @@
+package com.project.back_end.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SlotHoldRegistryTest {
+
+    private static final long DOCTOR_ID = 3L;
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 1, 7, 9, 0);
+    private static final LocalDateTime TEN = NINE.plusHours(1);
+
+    private SlotHoldRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SlotHoldRegistry();
+        ReflectionTestUtils.setField(registry, "maxTtlSeconds", 600L);
+    }
+
+    @Test
+    void holdExcludesOtherPatientsUntilReleased() {
+        assertNotNull(registry.tryHold(DOCTOR_ID, NINE, 1L, 60));
+        assertNull(registry.tryHold(DOCTOR_ID, NINE, 2L, 60));
+
+        registry.release(DOCTOR_ID, NINE, 2L); // Not theirs; ignored
+        assertNull(registry.tryHold(DOCTOR_ID, NINE, 2L, 60));
+
+        registry.release(DOCTOR_ID, NINE, 1L);
+        assertNotNull(registry.tryHold(DOCTOR_ID, NINE, 2L, 60));
+    }
+
+    @Test
+    void patientKeepsOnlyTheirLatestHold() {
+        assertNotNull(registry.tryHold(DOCTOR_ID, NINE, 1L, 60));
+        assertNotNull(registry.tryHold(DOCTOR_ID, TEN, 1L, 60));
+
+        assertEquals(1, registry.size());
+        assertNotNull(registry.tryHold(DOCTOR_ID, NINE, 2L, 60));
+        assertNull(registry.tryHold(DOCTOR_ID, TEN, 2L, 60));
+    }
+
+    @Test
+    void failedHoldKeepsThePatientsPreviousHold() {
+        assertNotNull(registry.tryHold(DOCTOR_ID, TEN, 2L, 60));
+        assertNotNull(registry.tryHold(DOCTOR_ID, NINE, 1L, 60));
+
+        assertNull(registry.tryHold(DOCTOR_ID, TEN, 1L, 60));
+        assertNull(registry.tryHold(DOCTOR_ID, NINE, 2L, 60));
+    }
+
+    @Test
+    void expiredHoldCanBeTakenOver() throws InterruptedException {
+        assertNotNull(registry.tryHold(DOCTOR_ID, NINE, 1L, 1));
+
+        Thread.sleep(1100);
+
+        assertNotNull(registry.tryHold(DOCTOR_ID, NINE, 2L, 60));
+        assertNull(registry.claim(DOCTOR_ID, NINE, 1L, 10));
+    }
+
+    @Test
+    void holdTurnsAwayAnotherPatientsBooking() {
+        assertNotNull(registry.tryHold(DOCTOR_ID, NINE, 1L, 60));
+
+        assertNull(registry.claim(DOCTOR_ID, NINE, 2L, 10));
+
+        SlotHoldRegistry.Claim own = registry.claim(DOCTOR_ID, NINE, 1L, 10);
+        assertNotNull(own);
+        registry.finishClaim(own, true);
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void bookingClaimTurnsAwayAnotherPatientsHold() {
+        SlotHoldRegistry.Claim claim = registry.claim(DOCTOR_ID, NINE, 1L, 10);
+        assertNotNull(claim);
+
+        assertNull(registry.tryHold(DOCTOR_ID, NINE, 2L, 60));
+
+        registry.finishClaim(claim, false);
+        assertNotNull(registry.tryHold(DOCTOR_ID, NINE, 2L, 60));
+    }
+
+    @Test
+    void failedBookingRestoresThePatientsHold() {
+        assertNotNull(registry.tryHold(DOCTOR_ID, NINE, 1L, 60));
+        SlotHoldRegistry.Claim claim = registry.claim(DOCTOR_ID, NINE, 1L, 10);
+
+        registry.finishClaim(claim, false);
+
+        assertNull(registry.tryHold(DOCTOR_ID, NINE, 2L, 60));
+        assertNull(registry.claim(DOCTOR_ID, NINE, 2L, 10));
+    }
+
+    @Test
+    void claimReplacedMeanwhileIsLeftAlone() {
+        SlotHoldRegistry.Claim claim = registry.claim(DOCTOR_ID, NINE, 1L, 10);
+        // The patient holds the same slot again while the booking is in flight
+        assertNotNull(registry.tryHold(DOCTOR_ID, NINE, 1L, 60));
+
+        registry.finishClaim(claim, true);
+
+        assertNull(registry.tryHold(DOCTOR_ID, NINE, 2L, 60));
+    }
+
+    @Test
+    void exactlyOneConcurrentClaimWins() throws Exception {
+        int patients = 8;
+        ExecutorService threads = Executors.newFixedThreadPool(patients);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<SlotHoldRegistry.Claim>> results = new ArrayList<>();
+            for (long patient = 1; patient <= patients; patient++) {
+                long patientId = patient;
+                results.add(threads.submit(() -> {
+                    start.await();
+                    return registry.claim(DOCTOR_ID, NINE, patientId, 10);
+                }));
+            }
+            start.countDown();
+
+            int won = 0;
+            for (Future<SlotHoldRegistry.Claim> result : results) {
+                if (result.get(10, TimeUnit.SECONDS) != null) {
+                    won++;
+                }
+            }
+            assertEquals(1, won);
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+}
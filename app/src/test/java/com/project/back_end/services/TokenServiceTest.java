@@ -0,0 +1,110 @@
+package com.project.back_end.services;
+
+import com.project.back_end.auth.AuthenticatedUser;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.AdminRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * The verified-token and principal caches, trust-claims mode and revocation of deleted users.
+ */
+class TokenServiceTest {
+
+    private static final String SECRET = "test-secret-that-is-long-enough-for-hs256";
+    private static final String EMAIL = "doctor3@example.com";
+    private static final long DOCTOR_ID = 3L;
+
+    private DoctorRepository doctorRepository;
+    private TokenService tokenService;
+
+    @BeforeEach
+    void setUp() {
+        doctorRepository = mock(DoctorRepository.class);
+        tokenService = new TokenService(mock(AdminRepository.class), doctorRepository, mock(PatientRepository.class));
+        ReflectionTestUtils.setField(tokenService, "secret", SECRET);
+        ReflectionTestUtils.setField(tokenService, "verifiedCacheMaxSize", 100);
+        ReflectionTestUtils.setField(tokenService, "principalCacheMaxSize", 100);
+        ReflectionTestUtils.setField(tokenService, "principalCacheTtlSeconds", 300L);
+        tokenService.init();
+
+        Doctor doctor = new Doctor();
+        doctor.setId(DOCTOR_ID);
+        doctor.setEmail(EMAIL);
+        when(doctorRepository.findByEmail(EMAIL)).thenReturn(doctor);
+    }
+
+    @Test
+    void repeatedTokenIsAnsweredFromTheCaches() {
+        String token = tokenService.generateToken(EMAIL, "doctor", DOCTOR_ID);
+
+        AuthenticatedUser first = tokenService.authenticate(token, "doctor");
+        AuthenticatedUser second = tokenService.authenticate(token, "doctor");
+
+        assertEquals(DOCTOR_ID, first.getId());
+        assertEquals(DOCTOR_ID, second.getId());
+        verify(doctorRepository, times(1)).findByEmail(EMAIL);
+        assertEquals(1L, tokenService.getVerifiedTokenCacheStats().get("hits"));
+        assertEquals(1L, tokenService.getPrincipalCacheStats().get("hits"));
+    }
+
+    @Test
+    void tokenForAnotherRoleIsRejected() {
+        String token = tokenService.generateToken(EMAIL, "doctor", DOCTOR_ID);
+
+        assertNotNull(tokenService.authenticate(token, "doctor"));
+        assertNull(tokenService.authenticate(token, "admin"));
+    }
+
+    @Test
+    void trustedClaimsSkipTheLookupUntilThePrincipalIsRevoked() {
+        ReflectionTestUtils.setField(tokenService, "trustClaims", true);
+        String token = tokenService.generateToken(EMAIL, "doctor", DOCTOR_ID);
+        String otherToken = tokenService.generateToken("doctor4@example.com", "doctor", 4L);
+
+        assertEquals(DOCTOR_ID, tokenService.authenticate(token, "doctor").getId());
+        verifyNoInteractions(doctorRepository);
+
+        tokenService.revokePrincipal("doctor", DOCTOR_ID);
+
+        // The signature is still cached as valid; the revocation alone turns the token away
+        assertNull(tokenService.authenticate(token, "doctor"));
+        assertNotNull(tokenService.authenticate(otherToken, "doctor"));
+        verifyNoInteractions(doctorRepository);
+    }
+
+    @Test
+    void expiredTokenIsNotServedFromTheCache() throws InterruptedException {
+        // JWT expirations have second precision, so this one lapses within 1.5 s
+        String token = Jwts.builder()
+                .subject(EMAIL)
+                .claim("role", "doctor")
+                .claim("id", DOCTOR_ID)
+                .expiration(new Date(System.currentTimeMillis() + 1500))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        assertNotNull(tokenService.authenticate(token, "doctor"));
+
+        Thread.sleep(1600);
+
+        assertNull(tokenService.authenticate(token, "doctor"));
+        assertEquals(0L, tokenService.getVerifiedTokenCacheStats().get("hits"));
+    }
+}